@@ -0,0 +1,198 @@
+package dabot.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import dabot.task.Deadline;
+import dabot.task.Event;
+import dabot.task.Task;
+import dabot.task.Todo;
+
+/**
+ * Generates synthetic, reproducible task lists for the benchmarks.
+ * <p>
+ * Descriptions are two to five words from a fixed vocabulary, about one date
+ * in five is free text such as {@code Sunday} rather than an ISO date, and a
+ * quarter of the tasks are done, roughly like a long-lived real task file.
+ * ISO dates fall within half a year either side of the base date, so the
+ * date queries hit a realistic share of the list.
+ * </p>
+ */
+public final class Datasets {
+    /** Number of distinct words descriptions are drawn from. */
+    public static final int VOCABULARY_SIZE = 512;
+
+    private static final String[] SYLLABLES = {
+        "ba", "ke", "ri", "mo", "tu", "la", "ne", "si", "po", "gu", "da", "fe", "hi", "jo", "vu", "za"
+    };
+    private static final String[] FREE_TEXT_DATES = {"Sunday", "Mon 2pm", "4pm", "next week", "tomorrow"};
+    private static final String[] WORDS = buildVocabulary();
+
+    private Datasets() {
+    }
+
+    /** Share of each task type in a generated list, in percent. */
+    public enum Mix {
+        TODOS(100, 0),
+        BALANCED(34, 33),
+        DEADLINES(10, 80),
+        EVENTS(10, 10);
+
+        private final int todoPercent;
+        private final int deadlinePercent;
+
+        Mix(int todoPercent, int deadlinePercent) {
+            this.todoPercent = todoPercent;
+            this.deadlinePercent = deadlinePercent;
+        }
+    }
+
+    private static String[] buildVocabulary() {
+        String[] words = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < words.length; i++) {
+            int n = SYLLABLES.length;
+            words[i] = SYLLABLES[i % n] + SYLLABLES[(i / n) % n] + SYLLABLES[(i / n / n + i) % n];
+        }
+        return words;
+    }
+
+    /**
+     * Returns the {@code i}-th word of the vocabulary, e.g. as a keyword to search for.
+     *
+     * @param i index into the vocabulary; wraps around
+     * @return a word that appears in generated descriptions
+     */
+    public static String word(int i) {
+        return WORDS[Math.floorMod(i, WORDS.length)];
+    }
+
+    /**
+     * Generates a task list.
+     *
+     * @param size number of tasks
+     * @param mix  share of each task type
+     * @param base date the ISO dates are centred on
+     * @param seed random seed; the same arguments always give the same list
+     * @return the generated tasks
+     */
+    public static List<Task> tasks(int size, Mix mix, LocalDate base, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(task(random, mix, base));
+        }
+        return tasks;
+    }
+
+    /**
+     * Generates the commands that would add a task list, one per line, as accepted by
+     * {@link dabot.main.Parser#parseTask(String)}.
+     *
+     * @param size number of commands
+     * @param mix  share of each task type
+     * @param base date the ISO dates are centred on
+     * @param seed random seed
+     * @return the generated commands
+     */
+    public static List<String> commands(int size, Mix mix, LocalDate base, long seed) {
+        Random random = new Random(seed);
+        List<String> commands = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task t = task(random, mix, base);
+            String[] fields = t.encodeString().split(" \\| ");
+            switch (t.getType()) {
+            case "D":
+                commands.add("deadline " + fields[2] + " /by " + fields[3]);
+                break;
+            case "E":
+                commands.add("event " + fields[2] + " /from " + fields[3] + " /to " + fields[4]);
+                break;
+            default:
+                commands.add("todo " + fields[2]);
+                break;
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Writes a generated task list as a text task file.
+     *
+     * @param path file to write
+     * @param size number of tasks
+     * @param mix  share of each task type
+     * @param base date the ISO dates are centred on
+     * @param seed random seed
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, int size, Mix mix, LocalDate base, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                out.write(task(random, mix, base).encodeString());
+                out.write('\n');
+            }
+        }
+    }
+
+    private static Task task(Random random, Mix mix, LocalDate base) {
+        String description = description(random);
+        int roll = random.nextInt(100);
+        Task task;
+        if (roll < mix.todoPercent) {
+            task = new Todo(description);
+        } else if (roll < mix.todoPercent + mix.deadlinePercent) {
+            task = new Deadline(description, date(random, base));
+        } else {
+            LocalDate start = base.plusDays(random.nextInt(365) - 182);
+            boolean isIso = random.nextInt(5) != 0;
+            task = isIso
+                    ? new Event(description, start.toString(), start.plusDays(random.nextInt(7)).toString())
+                    : new Event(description, freeText(random), freeText(random));
+        }
+        if (random.nextInt(4) == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static String description(Random random) {
+        StringBuilder sb = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int words = 1 + random.nextInt(4); words > 0; words--) {
+            sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String date(Random random, LocalDate base) {
+        return random.nextInt(5) == 0 ? freeText(random) : base.plusDays(random.nextInt(365) - 182).toString();
+    }
+
+    private static String freeText(Random random) {
+        return FREE_TEXT_DATES[random.nextInt(FREE_TEXT_DATES.length)];
+    }
+
+    /**
+     * Writes a synthetic task file: {@code Datasets FILE SIZE [MIX] [SEED]}.
+     *
+     * @param args output file, number of tasks, optional {@link Mix} name and seed
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: Datasets FILE SIZE [TODOS|BALANCED|DEADLINES|EVENTS] [SEED]");
+            return;
+        }
+        Mix mix = args.length > 2 ? Mix.valueOf(args[2]) : Mix.BALANCED;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        write(Paths.get(args[0]), Integer.parseInt(args[1]), mix, LocalDate.now(), seed);
+    }
+}
@@ -0,0 +1,55 @@
+package dabot.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import dabot.task.ColumnarTaskList;
+import dabot.task.RankedList;
+import dabot.task.Task;
+
+/**
+ * Measures the heap taken per task by the object and columnar task lists: {@code FootprintReport [SIZE] [MIX]}.
+ * <p>
+ * The columns are built from the generated object list, which is then
+ * dropped; the used heap is compared after a full collection each time, so
+ * the numbers include every object the list keeps alive. Run with a heap
+ * large enough for both forms at once, e.g. {@code -Xmx2g} for a million tasks.
+ * </p>
+ */
+public final class FootprintReport {
+    private FootprintReport() {
+    }
+
+    /**
+     * Prints the measured bytes per task of each representation.
+     *
+     * @param args optional number of tasks (default 1000000) and {@link Datasets.Mix} name
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Datasets.Mix mix = args.length > 1 ? Datasets.Mix.valueOf(args[1]) : Datasets.Mix.BALANCED;
+        LocalDate base = LocalDate.now();
+
+        long before = usedHeap();
+        List<Task> objects = new RankedList<>(Datasets.tasks(size, mix, base, 42));
+        print("Objects", usedHeap() - before, objects.size());
+
+        ColumnarTaskList columns = new ColumnarTaskList(objects);
+        objects = null;
+        print("Columns", usedHeap() - before, columns.size());
+        System.out.println(columns.footprint());
+    }
+
+    private static void print(String name, long bytes, int size) {
+        System.out.printf("%s: %d tasks in %.1f MB (%.1f bytes per task)%n", name, size, bytes / 1e6,
+                (double) bytes / size);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
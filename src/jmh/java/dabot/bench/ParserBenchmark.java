@@ -0,0 +1,104 @@
+package dabot.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dabot.main.DabotException;
+import dabot.main.Parser;
+
+/**
+ * Measures the parse cost per command, for each kind of command argument.
+ * <p>
+ * Every invocation parses {@value #BATCH} generated commands and is reported
+ * per command, so the scores are directly the nanoseconds one command spends
+ * in {@link Parser}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    private static final int BATCH = 1000;
+
+    private List<String> taskCommands;
+    private String[] indexCommands;
+    private String[] dateCommands;
+    private String[] findCommands;
+    private String[] remindCommands;
+
+    /** Generates a balanced mix of add commands and the argument commands. */
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        taskCommands = Datasets.commands(BATCH, Datasets.Mix.BALANCED, today, 42);
+        Random random = new Random(42);
+        indexCommands = new String[BATCH];
+        dateCommands = new String[BATCH];
+        findCommands = new String[BATCH];
+        remindCommands = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            indexCommands[i] = "mark " + (1 + random.nextInt(100_000));
+            LocalDate from = today.plusDays(random.nextInt(365));
+            dateCommands[i] = random.nextBoolean() ? "on " + from : "on " + from + " " + from.plusDays(7);
+            findCommands[i] = "find " + Datasets.word(random.nextInt(Datasets.VOCABULARY_SIZE));
+            remindCommands[i] = "remind " + (1 + random.nextInt(30));
+        }
+    }
+
+    /** {@code todo}, {@code deadline} and {@code event} commands through {@link Parser#parseTask(String)}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseTask(Blackhole bh) throws DabotException {
+        for (String command : taskCommands) {
+            bh.consume(Parser.parseTask(command));
+        }
+    }
+
+    /** {@code mark N} through {@link Parser#parseIndex1(String)}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseIndex(Blackhole bh) throws DabotException {
+        for (String command : indexCommands) {
+            bh.consume(Parser.parseIndex1(command));
+        }
+    }
+
+    /** {@code on DATE [DATE]} through {@link Parser#parseOnRange(String)}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseOnRange(Blackhole bh) throws DabotException {
+        for (String command : dateCommands) {
+            bh.consume(Parser.parseOnRange(command));
+        }
+    }
+
+    /** {@code find WORD} through {@link Parser#parseFindKeyword(String)}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseFindKeyword(Blackhole bh) throws DabotException {
+        for (String command : findCommands) {
+            bh.consume(Parser.parseFindKeyword(command));
+        }
+    }
+
+    /** {@code remind N} through {@link Parser#parseRemindDays(String)}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void parseRemindDays(Blackhole bh) throws DabotException {
+        for (String command : remindCommands) {
+            bh.consume(Parser.parseRemindDays(command));
+        }
+    }
+}
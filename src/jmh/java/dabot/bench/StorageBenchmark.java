@@ -0,0 +1,96 @@
+package dabot.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import dabot.io.SnapshotFormat;
+import dabot.io.Storage;
+import dabot.main.DabotException;
+import dabot.task.Task;
+
+/**
+ * Measures loading and saving whole task files through {@link Storage}.
+ * <p>
+ * Saves are followed by {@link Storage#sync()}, so the time includes the
+ * write and fsync that group commit would otherwise do in the background.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "TODOS", "EVENTS"})
+    private Datasets.Mix mix;
+
+    @Param({"TEXT", "BINARY"})
+    private SnapshotFormat format;
+
+    private Path dir;
+    private String loadPath;
+    private Storage saveStorage;
+    private List<Task> tasks;
+
+    /** Writes the file to load and prepares the list to save. */
+    @Setup
+    public void setUp() throws IOException, DabotException {
+        dir = Files.createTempDirectory("dabot-bench");
+        tasks = Datasets.tasks(size, mix, LocalDate.now(), 42);
+
+        loadPath = dir.resolve("load.txt").toString();
+        Storage writer = new Storage(loadPath);
+        writer.setFormat(format);
+        writer.save(tasks);
+        writer.sync();
+
+        saveStorage = new Storage(dir.resolve("save.txt").toString());
+        saveStorage.setFormat(format);
+    }
+
+    /** Removes the temporary files. */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /** Loads the whole file eagerly. */
+    @Benchmark
+    public List<Task> load() throws DabotException {
+        return new Storage(loadPath).load();
+    }
+
+    /** Maps a text file and indexes its lines without decoding them. */
+    @Benchmark
+    public List<Task> loadMapped() throws DabotException {
+        Storage storage = new Storage(loadPath);
+        storage.setMemoryMapped(true);
+        return storage.load();
+    }
+
+    /** Encodes and durably writes the whole list. */
+    @Benchmark
+    public void save() throws DabotException {
+        saveStorage.save(tasks);
+        saveStorage.sync();
+    }
+}
@@ -0,0 +1,76 @@
+package dabot.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dabot.main.DabotException;
+import dabot.main.Parser;
+import dabot.task.Task;
+
+/**
+ * Measures encoding and decoding single tasks and parsing the commands that create them.
+ * <p>
+ * Each invocation handles a whole list of 1,000 generated tasks, so the
+ * reported time divided by 1,000 is the cost per task across the type mix.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskCodecBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({"BALANCED", "TODOS", "DEADLINES", "EVENTS"})
+    private Datasets.Mix mix;
+
+    private List<Task> tasks;
+    private String[] lines;
+    private List<String> commands;
+
+    /** Generates the tasks, their encoded lines and the matching commands. */
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        tasks = Datasets.tasks(BATCH, mix, today, 42);
+        lines = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            lines[i] = tasks.get(i).encodeString();
+        }
+        commands = Datasets.commands(BATCH, mix, today, 42);
+    }
+
+    /** Encodes every task with {@link Task#encodeString()}. */
+    @Benchmark
+    public void encode(Blackhole bh) {
+        for (Task t : tasks) {
+            bh.consume(t.encodeString());
+        }
+    }
+
+    /** Decodes every line with {@link Task#decodeString(String)}. */
+    @Benchmark
+    public void decode(Blackhole bh) throws DabotException {
+        for (String line : lines) {
+            bh.consume(Task.decodeString(line));
+        }
+    }
+
+    /** Parses every command with {@link Parser#parseTask(String)}. */
+    @Benchmark
+    public void parseTask(Blackhole bh) throws DabotException {
+        for (String command : commands) {
+            bh.consume(Parser.parseTask(command));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package dabot.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dabot.main.DabotException;
+import dabot.task.ConcurrentTaskList;
+import dabot.task.Task;
+import dabot.task.TaskList;
+
+/**
+ * Measures concurrent reads of a {@link ConcurrentTaskList} against a {@link TaskList} behind one lock.
+ * <p>
+ * The {@code find*} benchmarks only read; run them with
+ * {@code -PjmhThreads=1}, {@code 2}, {@code 4}, ... to see how the read
+ * throughput scales with cores. The {@code *WithWriter} groups add a thread
+ * that marks or unmarks a task every few milliseconds, like a user typing
+ * commands, while three threads search.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskListContentionBenchmark {
+    private static final long WRITE_INTERVAL_MILLIS = 5;
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private ConcurrentTaskList concurrent;
+    private TaskList locked;
+    private final Object lock = new Object();
+
+    /** The query each thread searches for next, so threads do not all ask for the same word. */
+    @State(Scope.Thread)
+    public static class Query {
+        private int next = (int) Thread.currentThread().getId() * 31;
+
+        String nextWord() {
+            return Datasets.word(next++);
+        }
+    }
+
+    /** Generates the lists and builds their indexes. */
+    @Setup
+    public void setUp() {
+        List<Task> tasks = Datasets.tasks(size, Datasets.Mix.BALANCED, LocalDate.now(), 42);
+        concurrent = new ConcurrentTaskList(tasks);
+        locked = new TaskList(Datasets.tasks(size, Datasets.Mix.BALANCED, LocalDate.now(), 42));
+        concurrent.find(Datasets.word(0));
+        locked.find(Datasets.word(0));
+    }
+
+    /** Searches the current snapshot without locking. */
+    @Benchmark
+    public List<Task> findSnapshot(Query query) {
+        return concurrent.find(query.nextWord());
+    }
+
+    /** Searches the plain list while holding the lock its writers would take. */
+    @Benchmark
+    public List<Task> findLocked(Query query) {
+        synchronized (lock) {
+            return locked.find(query.nextWord());
+        }
+    }
+
+    /** Searches the snapshot while another thread keeps changing the list. */
+    @Benchmark
+    @Group("snapshotWithWriter")
+    @GroupThreads(3)
+    public List<Task> snapshotReader(Query query) {
+        return concurrent.find(query.nextWord());
+    }
+
+    /** Toggles the first task of the concurrent list, then pauses. */
+    @Benchmark
+    @Group("snapshotWithWriter")
+    @GroupThreads(1)
+    public void snapshotWriter() throws DabotException, InterruptedException {
+        toggleFirst(concurrent);
+        Thread.sleep(WRITE_INTERVAL_MILLIS);
+    }
+
+    /** Searches the plain list under the lock while another thread keeps changing it. */
+    @Benchmark
+    @Group("lockedWithWriter")
+    @GroupThreads(3)
+    public List<Task> lockedReader(Query query) {
+        synchronized (lock) {
+            return locked.find(query.nextWord());
+        }
+    }
+
+    /** Toggles the first task of the plain list under the lock, then pauses. */
+    @Benchmark
+    @Group("lockedWithWriter")
+    @GroupThreads(1)
+    public void lockedWriter() throws DabotException, InterruptedException {
+        synchronized (lock) {
+            toggleFirst(locked);
+        }
+        Thread.sleep(WRITE_INTERVAL_MILLIS);
+    }
+
+    private static void toggleFirst(TaskList tasks) throws DabotException {
+        if (tasks.get(0).getStatusIcon().equals("X")) {
+            tasks.unmark(0);
+        } else {
+            tasks.mark(0);
+        }
+    }
+}
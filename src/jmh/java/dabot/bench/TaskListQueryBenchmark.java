@@ -0,0 +1,79 @@
+package dabot.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dabot.task.Task;
+import dabot.task.TaskList;
+
+/**
+ * Measures the {@link TaskList} queries behind {@code find}, {@code on} and {@code remind}.
+ * <p>
+ * The indexes are built lazily by the first query, so setup runs each query
+ * once and the benchmarks measure the steady state of a running session.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListQueryBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "TODOS", "DEADLINES", "EVENTS"})
+    private Datasets.Mix mix;
+
+    private TaskList tasks;
+    private LocalDate today;
+    private int query;
+
+    /** Generates the list and builds its indexes. */
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        tasks = new TaskList(Datasets.tasks(size, mix, today, 42));
+        tasks.find(Datasets.word(0));
+        tasks.tasksOn(today);
+        tasks.remindersWithinDays(7);
+    }
+
+    /** Searches for one word, cycling through the vocabulary. */
+    @Benchmark
+    public List<Task> findWord() {
+        return tasks.find(Datasets.word(query++));
+    }
+
+    /** Searches for the first two letters of a word, which occur in many words. */
+    @Benchmark
+    public List<Task> findPrefix() {
+        return tasks.find(Datasets.word(query++).substring(0, 2));
+    }
+
+    /** Searches for two words as one phrase. */
+    @Benchmark
+    public List<Task> findTwoWords() {
+        return tasks.find(Datasets.word(query++) + " " + Datasets.word(query * 7));
+    }
+
+    /** Lists the tasks on one day, cycling through the year the dates span. */
+    @Benchmark
+    public List<Task> tasksOn() {
+        return tasks.tasksOn(today.plusDays(query++ % 365 - 182));
+    }
+
+    /** Lists the undone tasks of the coming week. */
+    @Benchmark
+    public List<Task> remindersWithinWeek() {
+        return tasks.remindersWithinDays(7);
+    }
+}
@@ -0,0 +1,87 @@
+package dabot.gui;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs commands one at a time on a background thread and hands each reply back in submission order.
+ * <p>
+ * All commands, and therefore every change to the task list and every save,
+ * run on the same single writer thread, so the window never waits for the
+ * disk. Replies are passed to the reply executor (the JavaFX application
+ * thread in the GUI) in the order the commands were submitted.
+ * </p>
+ */
+final class CommandQueue {
+    private final Function<String, String> handler;
+    private final Executor replyExecutor;
+    private final ExecutorService writer;
+
+    /**
+     * Creates a queue in front of {@code handler}.
+     *
+     * @param handler       runs one command and returns its reply; only ever called from the writer thread
+     * @param replyExecutor runs the reply callbacks, e.g. {@code Platform::runLater}
+     */
+    CommandQueue(Function<String, String> handler, Executor replyExecutor) {
+        this.handler = handler;
+        this.replyExecutor = replyExecutor;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "dabot-commands");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues a command.
+     *
+     * @param input   the command to run
+     * @param onReply receives the reply on the reply executor
+     */
+    void submit(String input, Consumer<String> onReply) {
+        writer.execute(() -> {
+            String reply;
+            try {
+                reply = handler.apply(input);
+            } catch (RuntimeException e) {
+                reply = "Error! Something went wrong: " + e.getMessage();
+            }
+            String result = reply;
+            replyExecutor.execute(() -> onReply.accept(result));
+        });
+    }
+
+    /**
+     * Stops accepting commands and waits for the queued ones, and their saves, to finish.
+     *
+     * @param timeoutMillis longest time to wait
+     * @return {@code true} if every queued command finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean shutdown(long timeoutMillis) throws InterruptedException {
+        return shutdown(() -> { }, timeoutMillis);
+    }
+
+    /**
+     * Stops accepting commands, queues {@code last} behind the commands already queued, and waits for all of them.
+     * <p>
+     * {@code last} runs on the writer thread, so it never overlaps a command,
+     * even when the wait times out.
+     * </p>
+     *
+     * @param last          final job, e.g. flushing pending saves
+     * @param timeoutMillis longest time to wait
+     * @return {@code true} if every queued command and {@code last} finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean shutdown(Runnable last, long timeoutMillis) throws InterruptedException {
+        writer.execute(last);
+        writer.shutdown();
+        return writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,13 +1,15 @@
 package dabot.gui;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import dabot.io.Storage;
+import dabot.main.CommandEngine;
 import dabot.main.DabotException;
-import dabot.main.Parser;
-import dabot.task.Task;
+import dabot.metrics.Metrics;
 import dabot.task.TaskList;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -16,20 +18,29 @@ import javafx.stage.Stage;
  * The main JavaFX application class for DaBot.
  * <p>
  * Initializes the task storage, loads tasks from file, and starts the GUI.
- * Provides the {@code handle} method to process user input and return responses.
+ * Provides the {@code submit} method to process user input on a background
+ * {@link CommandQueue} and return responses.
  */
 public class MainApp extends Application {
-    private TaskList tasks;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
     private Storage storage;
+    private CommandQueue commands;
 
     @Override
     public void start(Stage stage) throws Exception {
-        storage = new Storage("data/dabot.txt");
+        storage = Storage.fromSystemProperties("data/dabot.txt");
+        Metrics metrics = Metrics.fromSystemProperties();
+        storage.setMetrics(metrics);
+        TaskList tasks;
         try {
-            tasks = new TaskList(storage.load());
+            tasks = TaskList.wrap(storage.load());
         } catch (DabotException e) {
             tasks = new TaskList();
         }
+        storage.attach(tasks);
+        CommandEngine engine = new CommandEngine(storage, tasks, metrics);
+        commands = new CommandQueue(engine::handle, Platform::runLater);
 
         FXMLLoader fxml = new FXMLLoader(getClass().getResource("/view/MainWindow.fxml"));
         Scene scene = new Scene(fxml.load());
@@ -45,126 +56,38 @@ public class MainApp extends Application {
     }
 
     /**
-     * Handles a single line of user input and returns DaBot’s reply.
+     * Queues a line of user input to run off the JavaFX application thread.
+     * Replies arrive on the application thread, in the order the input was submitted.
      *
-     * @param input The user input command.
-     * @return The chatbot’s response string.
+     * @param input   The user input command.
+     * @param onReply Receives the chatbot’s response string.
      */
-    public String handle(String input) {
-        String trimmed = input == null ? "" : input.trim();
-        if (trimmed.isEmpty()) {
-            return "Please enter a command.";
-        }
-
-        // first token is the command word
-        String cmd = trimmed.split("\\s+", 2)[0];
-
-        try {
-            switch (cmd) {
-            case "bye":
-                return handleBye();
-            case "list":
-                return handleList();
-            case "on":
-                return handleOn(trimmed);
-            case "mark":
-                return handleMark(trimmed);
-            case "unmark":
-                return handleUnmark(trimmed);
-            case "delete":
-                return handleDelete(trimmed);
-            case "remind":
-                return handleRemind(trimmed);
-            default:
-                return handleAdd(trimmed);
-            }
-        } catch (DabotException e) {
-            return e.getMessage();
-        }
-    }
-
-    private String handleBye() throws DabotException {
-        save();
-        return "Bye. Hope to see you again soon!";
+    public void submit(String input, Consumer<String> onReply) {
+        commands.submit(input, onReply);
     }
 
-    private String handleList() {
-        if (tasks.size() == 0) {
-            return "Your list is empty.";
-        }
-        return "Here are the tasks in your list:\n" + renderTaskList();
-    }
-
-    private String handleOn(String input) throws DabotException {
-        java.time.LocalDate date = Parser.parseOnDate(input);
-        var dayTasks = tasks.tasksOn(date);
-        if (dayTasks.isEmpty()) {
-            return "No tasks on " + date + ".";
-        }
-        StringBuilder sb = new StringBuilder("Here are the tasks on ").append(date).append(":\n");
-        for (Task t : dayTasks) {
-            sb.append(t).append('\n');
+    /**
+     * Lets queued commands, and the saves they make, finish before the application exits.
+     * Saves still waiting for a shared sync or a background compaction are flushed too,
+     * as the {@code bye} command does. The flush runs on the command thread after the
+     * last command, so it never races a command that is still running.
+     */
+    @Override
+    public void stop() throws Exception {
+        if (commands == null) {
+            return;
         }
-        return sb.toString().trim();
-    }
-
-    private String handleMark(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        tasks.mark(idx1 - 1);
-        save();
-        return "Nice! I've marked this task as done:\n" + tasks.get(idx1 - 1);
-    }
-
-    private String handleUnmark(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        tasks.unmark(idx1 - 1);
-        save();
-        return "OK, I've marked this task as not done yet:\n" + tasks.get(idx1 - 1);
-    }
-
-    private String handleDelete(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        Task removed = tasks.delete(idx1 - 1);
-        save();
-        return "Noted. I've removed this task:\n" + removed
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
-    }
-
-    private String handleAdd(String input) throws DabotException {
-        Task task = Parser.parseTask(input);
-        tasks.add(task);
-        save();
-        return "Got it. I've added this task:\n\t" + task
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
-    }
-
-    private void save() throws DabotException {
-        assert tasks != null : "TaskList must be initialized before saving";
-        storage.save(tasks.asList());
-    }
-
-    private String renderTaskList() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1).append(". ").append(tasks.get(i)).append('\n');
+        if (!commands.shutdown(this::syncOnExit, SHUTDOWN_TIMEOUT_MILLIS)) {
+            System.out.println("Queued commands did not finish within " + SHUTDOWN_TIMEOUT_MILLIS
+                    + " ms; tasks may not all be saved");
         }
-        return sb.toString().trim();
     }
 
-    private String handleRemind(String input) throws DabotException {
-        int days = Parser.parseRemindDays(input); // e.g., "remind 7" -> 7
-        var upcoming = tasks.remindersWithinDays(days);
-
-        if (upcoming.isEmpty()) {
-            return "No upcoming tasks in the next " + days + " days.";
-        }
-
-        StringBuilder sb = new StringBuilder("Here are the upcoming tasks in the next ")
-                .append(days).append(" days:").append('\n');
-        for (int i = 0; i < upcoming.size(); i++) {
-            sb.append(i + 1).append(". ").append(upcoming.get(i)).append('\n');
+    private void syncOnExit() {
+        try {
+            storage.sync();
+        } catch (DabotException e) {
+            System.out.println("Could not save tasks on exit: " + e.getMessage());
         }
-        return sb.toString().trim();
     }
-
 }
@@ -1,34 +1,49 @@
 package dabot.gui;
 
-import javafx.application.Platform;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
-import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 /**
  * Controller class for the main GUI window of DaBot.
  * Supports asymmetric chat bubbles with error highlighting.
- * Falls back to a plain TextArea transcript if no VBox dialogContainer is present in FXML.
+ * <p>
+ * The transcript is a {@link ListView}, so only the rows on screen have
+ * nodes, and those are recycled as the list scrolls. At most
+ * {@value #MAX_MESSAGES} messages are kept; older ones are appended to
+ * {@code data/transcript.txt} by a {@link Transcript}.
+ * </p>
+ * Falls back to a plain TextArea transcript if no ListView transcriptView is present in FXML.
  */
 public class MainWindow {
-    // If your FXML has a VBox inside the ScrollPane, bind it here (preferred).
-    @FXML private VBox dialogContainer;
+    private static final int MAX_MESSAGES = 500;
+    private static final int MAX_CELL_CHARS = 10_000;
+    private static final Path SPILL_FILE = Paths.get("data", "transcript.txt");
 
-    @FXML private ScrollPane scrollPane;
-    @FXML private TextArea dialogArea; // kept for backward-compat; used if dialogContainer is absent
+    @FXML private ListView<Message> transcriptView;
+    @FXML private TextArea dialogArea; // kept for backward-compat; used if transcriptView is absent
     @FXML private TextField userInput;
     @FXML private Button sendButton;
+    @FXML private ProgressIndicator busyIndicator;
 
     private MainApp app;
+    private Transcript transcript;
+    private int pendingCount;
 
     /**
      * Initializes the window with the main app.
@@ -44,12 +59,17 @@ public class MainWindow {
             dialogArea.setWrapText(true);
         }
 
-        // Auto-scroll when using bubble mode
-        if (scrollPane != null && dialogContainer != null) {
-            scrollPane.setFitToWidth(true);
-            // Always scroll to bottom when new content is added
-            dialogContainer.heightProperty().addListener((obs, oldH, newH) ->
-                    scrollPane.setVvalue(1.0));
+        if (busyIndicator != null) {
+            busyIndicator.managedProperty().bind(busyIndicator.visibleProperty());
+            busyIndicator.setVisible(false);
+        }
+
+        if (transcriptView != null) {
+            ObservableList<Message> messages = FXCollections.observableArrayList();
+            transcriptView.setItems(messages);
+            transcriptView.setCellFactory(view -> new MessageCell());
+            transcriptView.setFocusTraversable(false);
+            transcript = new Transcript(messages, SPILL_FILE, MAX_MESSAGES);
         }
     }
 
@@ -57,13 +77,17 @@ public class MainWindow {
     public void showWelcome() {
         String welcome = "Hello! I'm DaBot\nWhat can I do for you?";
         if (isBubbleMode()) {
-            addBubble(welcome, false, false);
+            addMessage(new Message(welcome, false, false));
         } else if (dialogArea != null) {
             dialogArea.appendText(welcome + "\n");
         }
     }
 
-    /** Handles user input, shows bot replies, and closes the window on "bye". */
+    /**
+     * Handles user input, shows bot replies, and closes the window on "bye".
+     * The command runs in the background, so the user can keep typing while it
+     * and its save are in progress; a busy indicator shows while any are queued.
+     */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText() == null ? "" : userInput.getText().trim();
@@ -71,77 +95,119 @@ public class MainWindow {
             return;
         }
 
-        // Ask app to handle and produce a reply
-        String reply = app.handle(input);
+        if (isBubbleMode()) {
+            addMessage(new Message(input, true, false));
+        } else if (dialogArea != null) {
+            dialogArea.appendText("\nYou: " + input + "\n");
+        }
+        userInput.clear();
+        setPendingCount(pendingCount + 1);
+
+        // Ask app to handle the input; the reply arrives later on this thread
+        app.submit(input, reply -> showReply(input, reply));
+    }
+
+    private void showReply(String input, String reply) {
+        setPendingCount(pendingCount - 1);
 
         // Decide if reply should be highlighted as error
         boolean isError = looksLikeError(reply);
 
         // Render
         if (isBubbleMode()) {
-            addBubble(input, true, false);
-            addBubble(reply, false, isError);
-            Platform.runLater(() -> {
-                if (scrollPane != null) {
-                    scrollPane.setVvalue(1.0);
-                }
-            });
+            addMessage(new Message(reply, false, isError, isError ? null : pagedForm(input)));
         } else if (dialogArea != null) {
-            dialogArea.appendText("\nYou: " + input + "\n");
             dialogArea.appendText("DaBot: " + reply + "\n");
         }
 
-        userInput.clear();
-
         if ("bye".equals(input)) {
             // Close after showing reply
-            Stage stage = (Stage) (userInput != null ? userInput.getScene().getWindow()
-                    : (scrollPane != null ? scrollPane.getScene().getWindow() : null));
+            Stage stage = (Stage) userInput.getScene().getWindow();
             if (stage != null) {
                 stage.close();
             }
         }
     }
 
+    private void setPendingCount(int count) {
+        pendingCount = count;
+        if (busyIndicator != null) {
+            busyIndicator.setVisible(count > 0);
+        }
+    }
+
     private boolean isBubbleMode() {
-        return dialogContainer != null;
+        return transcriptView != null;
     }
 
-    private void addBubble(String text, boolean isUser, boolean isError) {
-        Label msg = new Label(text);
-        msg.setWrapText(true);
-        msg.setMinHeight(Region.USE_PREF_SIZE); // prevents vertical clipping on wrapped labels
-        HBox.setHgrow(msg, Priority.ALWAYS);
-
-        // keep some horizontal margin so lines break nicely
-        if (scrollPane != null) {
-            msg.maxWidthProperty().bind(dialogContainer.widthProperty().subtract(40));
-        } else {
-            msg.setMaxWidth(320); // fallback
-        }
+    private void addMessage(Message message) {
+        transcript.add(message);
+        transcriptView.scrollTo(transcriptView.getItems().size() - 1);
+    }
 
-        // simple styling samples; adjust your CSS as needed
-        msg.getStyleClass().add(isUser ? "bubble-user" : "bubble-bot");
-        if (isError) {
-            msg.getStyleClass().add("bubble-error");
+    /** Returns how to ask for one page of the replies of {@code input}, or {@code null} if its command has no pages. */
+    private static String pagedForm(String input) {
+        String command = input.split("\\s+", 2)[0];
+        switch (command) {
+        case "list":
+            return "list /page N";
+        case "find":
+            return "find KEYWORD /page N";
+        case "remind":
+            return "remind DAYS /page N";
+        default:
+            return null;
         }
+    }
 
-        HBox bubble = new HBox(msg);
-        bubble.setFillHeight(true);
-        bubble.setSpacing(6);
-        bubble.setAlignment(isUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
+    /**
+     * Shortens very long replies in the bubble; the full text is still in the transcript and its spill file.
+     * Replies to paged commands say how to see the rest.
+     */
+    private static String clip(Message message) {
+        String text = message.getText();
+        if (text.length() <= MAX_CELL_CHARS) {
+            return text;
+        }
+        String more = "\n... " + (text.length() - MAX_CELL_CHARS) + " more characters not shown";
+        return text.substring(0, MAX_CELL_CHARS) + more
+                + (message.getPagedForm() == null ? "." : "; use '" + message.getPagedForm() + "' to see the rest.");
+    }
 
-        dialogContainer.getChildren().add(bubble);
+    /** Shows a message as a chat bubble, reusing one label for whichever message the row currently holds. */
+    private final class MessageCell extends ListCell<Message> {
+        private final Label label = new Label();
+        private final HBox bubble = new HBox(label);
+
+        MessageCell() {
+            label.setWrapText(true);
+            label.setMinHeight(Region.USE_PREF_SIZE); // prevents vertical clipping on wrapped labels
+            // keep some horizontal margin so lines break nicely
+            label.maxWidthProperty().bind(transcriptView.widthProperty().subtract(40));
+            HBox.setHgrow(label, Priority.ALWAYS);
+            bubble.setFillHeight(true);
+            bubble.setSpacing(6);
+            setPrefWidth(0); // wrap to the list width instead of widening to the text
+        }
 
-        // ensure we scroll after layout pass
-        Platform.runLater(() -> {
-            if (scrollPane != null) {
-                scrollPane.setVvalue(1.0);
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            label.getStyleClass().removeAll("bubble-user", "bubble-bot", "bubble-error");
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
             }
-        });
+            label.setText(clip(message));
+            label.getStyleClass().add(message.isUser() ? "bubble-user" : "bubble-bot");
+            if (message.isError()) {
+                label.getStyleClass().add("bubble-error");
+            }
+            bubble.setAlignment(message.isUser() ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
+            setGraphic(bubble);
+        }
     }
 
-
     private boolean looksLikeError(String reply) {
         if (reply == null) {
             return false;
@@ -0,0 +1,59 @@
+package dabot.gui;
+
+/**
+ * One entry of the chat transcript.
+ */
+final class Message {
+    private final String text;
+    private final boolean isUser;
+    private final boolean isError;
+    private final String pagedForm;
+
+    /**
+     * Creates a transcript entry.
+     *
+     * @param text    the message text
+     * @param isUser  whether the user typed it, rather than DaBot replying
+     * @param isError whether it is an error reply to highlight
+     */
+    Message(String text, boolean isUser, boolean isError) {
+        this(text, isUser, isError, null);
+    }
+
+    /**
+     * Creates a reply to a command that can show its results page by page.
+     *
+     * @param text      the message text
+     * @param isUser    whether the user typed it, rather than DaBot replying
+     * @param isError   whether it is an error reply to highlight
+     * @param pagedForm how to ask for one page of the same results, e.g. {@code list /page N},
+     *                  or {@code null} if the reply cannot be paged
+     */
+    Message(String text, boolean isUser, boolean isError, String pagedForm) {
+        this.text = text;
+        this.isUser = isUser;
+        this.isError = isError;
+        this.pagedForm = pagedForm;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    boolean isUser() {
+        return isUser;
+    }
+
+    boolean isError() {
+        return isError;
+    }
+
+    String getPagedForm() {
+        return pagedForm;
+    }
+
+    @Override
+    public String toString() {
+        return (isUser ? "You: " : "DaBot: ") + text;
+    }
+}
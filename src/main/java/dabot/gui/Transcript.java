@@ -0,0 +1,84 @@
+package dabot.gui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Keeps the most recent chat messages in memory and appends older ones to a file.
+ * <p>
+ * The in-memory list is the one the window displays, so its size, and with it
+ * the memory and layout cost of a long session, stays bounded. When it grows
+ * past its capacity, the oldest quarter is written to the spill file in one go
+ * and removed with a single list change.
+ * </p>
+ */
+final class Transcript {
+    private final List<Message> visible;
+    private final Path spillFile;
+    private final int capacity;
+    private long spilledCount;
+    private boolean hasSpilled;
+
+    /**
+     * Creates a transcript over {@code visible}.
+     *
+     * @param visible   the displayed messages, e.g. the items of a list view
+     * @param spillFile file that older messages are written to; replaced by the first spill of a session
+     * @param capacity  most messages to keep in {@code visible}
+     */
+    Transcript(List<Message> visible, Path spillFile, int capacity) {
+        assert capacity >= 4 : "Capacity must leave room to spill a quarter";
+        this.visible = visible;
+        this.spillFile = spillFile;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a message, spilling the oldest ones first if the transcript is full.
+     *
+     * @param message message to add
+     */
+    void add(Message message) {
+        if (visible.size() >= capacity) {
+            spill(capacity / 4);
+        }
+        visible.add(message);
+    }
+
+    /**
+     * Returns how many messages have been moved out of memory.
+     *
+     * @return number of spilled messages
+     */
+    long getSpilledCount() {
+        return spilledCount;
+    }
+
+    private void spill(int count) {
+        List<Message> oldest = visible.subList(0, count);
+        StandardOpenOption mode = hasSpilled ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try {
+            if (spillFile.getParent() != null) {
+                Files.createDirectories(spillFile.getParent());
+            }
+            try (BufferedWriter w = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+                for (Message m : oldest) {
+                    w.write(m.toString());
+                    w.newLine();
+                }
+            }
+            hasSpilled = true;
+        } catch (IOException e) {
+            // the history is only a convenience; keep the window responsive and drop it
+            System.out.println("Could not save older messages: " + e.getMessage());
+        }
+        spilledCount += count;
+        oldest.clear();
+    }
+}
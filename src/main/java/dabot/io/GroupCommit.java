@@ -0,0 +1,104 @@
+package dabot.io;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import dabot.main.DabotException;
+
+/**
+ * Batches durability work so that every request arriving within one window shares a single commit.
+ * <p>
+ * With a window of zero the commit runs immediately on the caller thread.
+ * Otherwise the first request in a window schedules the commit on a background
+ * thread and later requests in the same window simply ride along. A failure in
+ * the background is reported on the next {@link #request()} or {@link #drain()}.
+ * </p>
+ */
+class GroupCommit {
+
+    /** A piece of I/O that makes earlier writes durable. */
+    interface Action {
+        void run() throws IOException;
+    }
+
+    private final Action action;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+    private boolean isScheduled;
+    private IOException failure;
+
+    /**
+     * Creates a group commit around {@code action}.
+     *
+     * @param action       the commit to perform
+     * @param windowMillis how long requests are collected before committing; {@code 0} commits immediately
+     */
+    GroupCommit(Action action, long windowMillis) {
+        assert windowMillis >= 0 : "Commit window must not be negative";
+        this.action = action;
+        this.windowMillis = windowMillis;
+        this.scheduler = windowMillis == 0 ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dabot-group-commit");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Asks for a commit covering everything written so far.
+     *
+     * @throws DabotException if this or an earlier commit failed
+     */
+    synchronized void request() throws DabotException {
+        throwIfFailed();
+        if (scheduler == null) {
+            runNow();
+            return;
+        }
+        if (!isScheduled) {
+            isScheduled = true;
+            scheduler.schedule(this::runScheduled, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commits immediately on the caller thread, without waiting for the window to end.
+     *
+     * @throws DabotException if this or an earlier commit failed
+     */
+    synchronized void drain() throws DabotException {
+        throwIfFailed();
+        isScheduled = false;
+        runNow();
+    }
+
+    private synchronized void runScheduled() {
+        if (!isScheduled) {
+            return; // already drained by the caller
+        }
+        isScheduled = false;
+        try {
+            action.run();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void runNow() throws DabotException {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new DabotException("Failed to save tasks: " + e.getMessage());
+        }
+    }
+
+    private void throwIfFailed() throws DabotException {
+        if (failure != null) {
+            IOException e = failure;
+            failure = null;
+            throw new DabotException("Failed to save tasks: " + e.getMessage());
+        }
+    }
+}
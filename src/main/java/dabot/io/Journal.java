@@ -0,0 +1,265 @@
+package dabot.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import dabot.main.DabotException;
+import dabot.task.Task;
+import dabot.task.TaskListListener;
+
+/**
+ * Append-only write-ahead log of {@link dabot.task.TaskList} mutations.
+ * <p>
+ * Every change is recorded as one short line instead of rewriting the whole
+ * snapshot file. Records are buffered in memory until {@link #flush()} and
+ * are only durable after {@link #force()}. The first line of a journal names
+ * the checksum of the snapshot it applies on top of, so a journal left over
+ * from an interrupted compaction is recognised and never replayed twice.
+ * </p>
+ * Record formats:
+ * <ul>
+ *   <li>{@code A INDEX ENCODED_TASK} - task inserted at {@code INDEX}</li>
+ *   <li>{@code D INDEX} - task removed from {@code INDEX}</li>
+ *   <li>{@code U INDEX ENCODED_TASK} - task at {@code INDEX} replaced</li>
+ * </ul>
+ */
+class Journal implements TaskListListener {
+    private static final String HEADER_PREFIX = "# base ";
+
+    private final File file;
+    private final File rotatedFile;
+    private final StringBuilder pending = new StringBuilder();
+    private FileChannel channel;
+    private int recordCount;
+
+    /**
+     * Creates a journal stored next to the given snapshot file.
+     *
+     * @param snapshotPath path of the snapshot this journal belongs to
+     */
+    Journal(String snapshotPath) {
+        this.file = new File(snapshotPath + ".journal");
+        this.rotatedFile = new File(snapshotPath + ".journal.old");
+    }
+
+    /**
+     * Returns whether any journal file exists for this snapshot.
+     *
+     * @return {@code true} if a live or rotated journal is on disk
+     */
+    boolean exists() {
+        return file.exists() || rotatedFile.exists();
+    }
+
+    /**
+     * Replays the rotated journal (if any) and then the live journal onto {@code tasks}.
+     * <p>
+     * A journal whose base checksum does not match the current list state is
+     * skipped. A torn record at the end of a journal (from a crash mid-append)
+     * ends the replay of that journal.
+     * </p>
+     *
+     * @param tasks  tasks loaded from the snapshot; modified in place
+     * @param format format the snapshot was read in, which defines the checksum
+     * @return {@code true} if the live journal can keep being appended to
+     * @throws DabotException if a journal cannot be read
+     */
+    boolean replayInto(List<Task> tasks, SnapshotFormat format) throws DabotException {
+        boolean isRotatedPresent = rotatedFile.exists();
+        if (isRotatedPresent) {
+            replayFile(rotatedFile, tasks, format);
+        }
+        boolean isLiveReplayed = file.exists() && replayFile(file, tasks, format);
+        return isLiveReplayed && !isRotatedPresent;
+    }
+
+    private boolean replayFile(File f, List<Task> tasks, SnapshotFormat format) throws DabotException {
+        try (BufferedReader br = new BufferedReader(new FileReader(f, StandardCharsets.UTF_8))) {
+            String header = br.readLine();
+            if (header == null || !header.startsWith(HEADER_PREFIX)
+                    || Long.parseLong(header.substring(HEADER_PREFIX.length()).trim()) != format.checksum(tasks)) {
+                System.out.println("Skipping stale journal: " + f.getName());
+                return false;
+            }
+            String line;
+            while ((line = br.readLine()) != null) {
+                try {
+                    apply(line, tasks);
+                } catch (DabotException | RuntimeException e) {
+                    System.out.println("Skipping bad journal record: " + e.getMessage());
+                    break;
+                }
+            }
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            throw new DabotException("Failed to replay journal: " + e.getMessage());
+        }
+    }
+
+    private static void apply(String record, List<Task> tasks) throws DabotException {
+        int firstSpace = record.indexOf(' ');
+        if (firstSpace != 1) {
+            throw new DabotException("Invalid journal record: " + record);
+        }
+        int secondSpace = record.indexOf(' ', 2);
+        int index = Integer.parseInt(secondSpace < 0 ? record.substring(2) : record.substring(2, secondSpace));
+        switch (record.charAt(0)) {
+        case 'A':
+            tasks.add(index, Task.decodeString(record.substring(secondSpace + 1)));
+            break;
+        case 'D':
+            tasks.remove(index);
+            break;
+        case 'U':
+            tasks.set(index, Task.decodeString(record.substring(secondSpace + 1)));
+            break;
+        default:
+            throw new DabotException("Invalid journal record: " + record);
+        }
+    }
+
+    /**
+     * Starts appending to the existing live journal.
+     *
+     * @throws DabotException if the journal cannot be opened
+     */
+    void reopen() throws DabotException {
+        try {
+            recordCount = 0;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new DabotException("Failed to open journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the live journal, moves it aside and starts an empty one based on {@code baseChecksum}.
+     * <p>
+     * The moved-aside journal stays on disk until {@link #discardRotated()} is
+     * called once the matching snapshot has been written.
+     * </p>
+     *
+     * @param baseChecksum checksum of the task list state the new journal applies to
+     * @throws DabotException if the journal files cannot be written
+     */
+    void rotate(long baseChecksum) throws DabotException {
+        try {
+            close();
+            if (file.exists() && !file.renameTo(rotatedFile)) {
+                throw new IOException("cannot rename " + file);
+            }
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            write(HEADER_PREFIX + baseChecksum + "\n");
+            channel.force(false);
+            recordCount = 0;
+        } catch (IOException e) {
+            throw new DabotException("Failed to rotate journal: " + e.getMessage());
+        }
+    }
+
+    /** Deletes the moved-aside journal once its records are covered by a snapshot. */
+    void discardRotated() {
+        rotatedFile.delete();
+    }
+
+    /**
+     * Returns the number of records in the live journal.
+     *
+     * @return record count since the last rotation
+     */
+    int recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes all buffered records to the live journal, without forcing them to disk.
+     *
+     * @return number of bytes written
+     * @throws DabotException if the records cannot be written
+     */
+    int flush() throws DabotException {
+        if (pending.length() == 0) {
+            return 0;
+        }
+        if (channel == null) {
+            throw new DabotException("Journal is not open; tasks were not loaded.");
+        }
+        try {
+            int bytes = write(pending.toString());
+            pending.setLength(0);
+            return bytes;
+        } catch (IOException e) {
+            throw new DabotException("Failed to write journal: " + e.getMessage());
+        }
+    }
+
+    private int write(String text) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        return buf.limit();
+    }
+
+    /**
+     * Forces everything written by {@link #flush()} to the storage device.
+     *
+     * @throws IOException if the sync fails
+     */
+    void force() throws IOException {
+        FileChannel c = channel;
+        if (c != null) {
+            c.force(false);
+        }
+    }
+
+    /**
+     * Flushes and closes the live journal.
+     *
+     * @throws DabotException if the journal cannot be written
+     */
+    void close() throws DabotException {
+        if (channel == null) {
+            return;
+        }
+        flush();
+        try {
+            channel.close();
+            channel = null;
+        } catch (IOException e) {
+            throw new DabotException("Failed to close journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        append('A', index, task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        append('D', index, null);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        append('U', index, task);
+    }
+
+    private void append(char op, int index, Task task) {
+        pending.append(op).append(' ').append(index);
+        if (task != null) {
+            pending.append(' ').append(task.encodeString());
+        }
+        pending.append('\n');
+        recordCount++;
+    }
+}
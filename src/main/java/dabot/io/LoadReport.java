@@ -0,0 +1,102 @@
+package dabot.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Diagnostics collected while loading a task file.
+ * <p>
+ * Each skipped line is recorded with its one-based line number, so loaders
+ * that decode in parallel can report problems in file order instead of
+ * printing them as they happen.
+ * </p>
+ */
+public class LoadReport {
+    private final List<Problem> problems = new ArrayList<>();
+
+    /** A single line that could not be loaded. */
+    public static final class Problem {
+        private final long lineNumber;
+        private final String message;
+
+        Problem(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        /**
+         * Returns the one-based line number of the skipped line.
+         *
+         * @return line number, or {@code 0} if the source has no lines (binary files)
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns why the line was skipped.
+         *
+         * @return the problem description
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return lineNumber > 0
+                    ? "Skipping bad task line " + lineNumber + ": " + message
+                    : "Skipping bad task data: " + message;
+        }
+    }
+
+    /**
+     * Records a problem.
+     *
+     * @param lineNumber one-based line number, or {@code 0} if not applicable
+     * @param message    why the line was skipped
+     */
+    void add(long lineNumber, String message) {
+        problems.add(new Problem(lineNumber, message));
+    }
+
+    /**
+     * Appends all problems of {@code other}, shifting their line numbers by {@code lineOffset}.
+     *
+     * @param other      report of a later part of the same file
+     * @param lineOffset number of lines that precede that part
+     */
+    void addAll(LoadReport other, long lineOffset) {
+        for (Problem p : other.problems) {
+            problems.add(new Problem(p.lineNumber + lineOffset, p.message));
+        }
+    }
+
+    /**
+     * Returns the recorded problems in file order.
+     *
+     * @return unmodifiable list of problems
+     */
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Returns whether the load finished without skipping anything.
+     *
+     * @return {@code true} if no problems were recorded
+     */
+    public boolean isEmpty() {
+        return problems.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Problem p : problems) {
+            sb.append(p).append('\n');
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,255 @@
+package dabot.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import dabot.main.DabotException;
+import dabot.task.Task;
+
+/**
+ * A task list over a memory-mapped text snapshot that decodes each task only when it is first accessed.
+ * <p>
+ * Opening only scans the file for line breaks, so the cost of startup is one
+ * pass over the bytes rather than decoding every task. Tasks added or replaced
+ * later are held in memory; untouched tasks stay as raw bytes in the mapping
+ * and are copied verbatim when the list is encoded again.
+ * </p>
+ */
+final class MappedTaskList extends AbstractList<Task> {
+    private static final int INVALID = 0;
+    private static final int DECODABLE = 1;
+    private static final int CANONICAL = 2;
+
+    private final ByteBuffer buffer;
+    private int[] starts;
+    private int[] ends;
+    private Task[] decoded;
+    private int size;
+
+    private MappedTaskList(ByteBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.decoded = new Task[capacity];
+    }
+
+    /**
+     * Maps a text snapshot and indexes its lines.
+     * Lines the decoder would reject, blank ones included, are skipped and reported, as by the eager loader.
+     *
+     * @param path   text snapshot to map; must be smaller than 2 GiB
+     * @param report receives the lines that were skipped
+     * @return the lazily decoded task list
+     * @throws IOException if the file cannot be mapped
+     */
+    static MappedTaskList map(Path path, LoadReport report) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        MappedTaskList list = new MappedTaskList(buffer, 16);
+        int limit = buffer.limit();
+        int lineStart = 0;
+        long lineNumber = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            int lineEnd = (i > lineStart && buffer.get(i - 1) == '\r') ? i - 1 : i;
+            lineNumber++;
+            int kind = list.classify(lineStart, lineEnd);
+            if (kind == CANONICAL) {
+                list.insert(list.size, lineStart, lineEnd, null);
+            } else if (kind == DECODABLE) {
+                // kept decoded, so saves and checksums use the task's encoding rather than this text
+                list.insert(list.size, lineStart, lineEnd, decodeChecked(list.text(lineStart, lineEnd)));
+            } else if (i < limit || i > lineStart) { // not the empty rest after a final line break
+                report.add(lineNumber, decodeError(list.text(lineStart, lineEnd)));
+            }
+            lineStart = i + 1;
+        }
+        return list;
+    }
+
+    /**
+     * Classifies a line without decoding it, applying the same field rules as {@link Task#decodeString}.
+     * <p>
+     * The {@code " | "} delimiter is plain ASCII, so scanning the UTF-8 bytes finds
+     * the same fields as scanning the decoded characters. A line is canonical when it
+     * has exactly the fields of its type and a done flag of {@code 0} or {@code 1},
+     * i.e. when it equals the encoding of the task it decodes to.
+     * </p>
+     *
+     * @return {@link #CANONICAL}, {@link #DECODABLE} or {@link #INVALID}
+     */
+    private int classify(int start, int end) {
+        if (end - start < 4 || buffer.get(start + 1) != ' ' || buffer.get(start + 2) != '|'
+                || buffer.get(start + 3) != ' ') {
+            return INVALID;
+        }
+        int required;
+        switch (buffer.get(start)) {
+        case 'T':
+            required = 3;
+            break;
+        case 'D':
+            required = 4;
+            break;
+        case 'E':
+            required = 5;
+            break;
+        default:
+            return INVALID;
+        }
+        int fields = 1;
+        int fieldStart = start + 4;
+        int nonEmptyFields = 1; // fields up to the last non-empty one, as counted by the decoder
+        for (int i = fieldStart; i <= end; i++) {
+            if (i < end && !(i + 2 < end && buffer.get(i) == ' ' && buffer.get(i + 1) == '|'
+                    && buffer.get(i + 2) == ' ')) {
+                continue;
+            }
+            fields++;
+            if (i > fieldStart) {
+                nonEmptyFields = fields;
+            }
+            fieldStart = i + 3;
+            i += 2;
+        }
+        if (nonEmptyFields < required) {
+            return INVALID;
+        }
+        byte done = buffer.get(start + 4);
+        boolean isCanonical = fields == required && (done == '0' || done == '1') && end - start > 7
+                && buffer.get(start + 5) == ' ' && buffer.get(start + 6) == '|' && buffer.get(start + 7) == ' ';
+        return isCanonical ? CANONICAL : DECODABLE;
+    }
+
+    /** Returns the message the eager loader reports for a line {@link #classify} rejected. */
+    private static String decodeError(String line) {
+        try {
+            Task.decodeString(line);
+        } catch (DabotException e) {
+            return e.getMessage();
+        }
+        return "Invalid task line: " + line;
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Decodes a line that {@link #classify} accepted. */
+    private static Task decodeChecked(String line) {
+        try {
+            return Task.decodeString(line);
+        } catch (DabotException e) {
+            throw new AssertionError("Lines are checked when mapped", e);
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        Task task = decoded[index];
+        if (task == null) {
+            task = decodeChecked(text(starts[index], ends[index]));
+            decoded[index] = task;
+        }
+        return task;
+    }
+
+    /**
+     * Returns the encoded form of the task at {@code index} without decoding it if it is untouched.
+     *
+     * @param index position of the task
+     * @return the same string {@link Task#encodeString()} would give
+     */
+    String encodedLine(int index) {
+        checkIndex(index);
+        return decoded[index] != null ? decoded[index].encodeString() : text(starts[index], ends[index]);
+    }
+
+    /**
+     * Feeds every encoded line followed by {@code '\n'} into {@code crc}, reading untouched lines
+     * straight from the mapping.
+     *
+     * @param crc checksum to update
+     */
+    void updateChecksum(CRC32 crc) {
+        for (int i = 0; i < size; i++) {
+            if (decoded[i] != null) {
+                crc.update(decoded[i].encodeString().getBytes(StandardCharsets.UTF_8));
+            } else {
+                crc.update(buffer.slice(starts[i], ends[i] - starts[i]));
+            }
+            crc.update('\n');
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        decoded[index] = task;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        insert(index, -1, -1, task);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        int tail = size - index - 1;
+        System.arraycopy(starts, index + 1, starts, index, tail);
+        System.arraycopy(ends, index + 1, ends, index, tail);
+        System.arraycopy(decoded, index + 1, decoded, index, tail);
+        decoded[--size] = null;
+        modCount++;
+        return old;
+    }
+
+    private void insert(int index, int start, int end, Task task) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            decoded = Arrays.copyOf(decoded, capacity);
+        }
+        int tail = size - index;
+        System.arraycopy(starts, index, starts, index + 1, tail);
+        System.arraycopy(ends, index, ends, index + 1, tail);
+        System.arraycopy(decoded, index, decoded, index + 1, tail);
+        starts[index] = start;
+        ends[index] = end;
+        decoded[index] = task;
+        size++;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
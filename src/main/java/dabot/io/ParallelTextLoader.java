@@ -0,0 +1,125 @@
+package dabot.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import dabot.main.DabotException;
+import dabot.task.Task;
+
+/**
+ * Decodes a text snapshot on all cores of a {@link ForkJoinPool}.
+ * <p>
+ * The file is cut into chunks that each end on a line break. Every chunk is
+ * decoded into its own task list and {@link LoadReport}, and the chunks are
+ * stitched back together in file order, so the result is identical to a
+ * sequential load.
+ * </p>
+ */
+final class ParallelTextLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+
+    private ParallelTextLoader() {
+    }
+
+    /** Decodes the lines in one byte range of the file. */
+    @SuppressWarnings("serial") // never serialized; RecursiveAction is Serializable only by inheritance
+    private static final class Chunk extends RecursiveAction {
+        private final MappedByteBuffer buffer;
+        private final int start;
+        private final int end;
+        private final List<Task> tasks = new ArrayList<>();
+        private final LoadReport report = new LoadReport();
+        private int lineCount;
+
+        Chunk(MappedByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i < bytes.length && bytes[i] != '\n') {
+                    continue;
+                }
+                if (i == bytes.length && lineStart == i) {
+                    break; // no partial line after the final line break
+                }
+                int lineEnd = (i > lineStart && bytes[i - 1] == '\r') ? i - 1 : i;
+                lineCount++;
+                try {
+                    tasks.add(Task.decodeString(new String(bytes, lineStart, lineEnd - lineStart,
+                            StandardCharsets.UTF_8)));
+                } catch (DabotException e) {
+                    report.add(lineCount, e.getMessage());
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Loads every task of a text snapshot in parallel.
+     *
+     * @param path   text snapshot smaller than 2 GiB
+     * @param pool   pool to decode on
+     * @param report receives the lines that were skipped, in file order
+     * @return all decoded tasks, in file order
+     * @throws IOException if the file cannot be read
+     */
+    static List<Task> load(Path path, ForkJoinPool pool, LoadReport report) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        List<Chunk> chunks = split(buffer, pool.getParallelism() * 4);
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        });
+
+        int total = 0;
+        for (Chunk c : chunks) {
+            total += c.tasks.size();
+        }
+        List<Task> tasks = new ArrayList<>(total);
+        long lineOffset = 0;
+        for (Chunk c : chunks) {
+            tasks.addAll(c.tasks);
+            report.addAll(c.report, lineOffset);
+            lineOffset += c.lineCount;
+        }
+        return tasks;
+    }
+
+    /** Cuts the buffer into about {@code target} chunks, each ending just after a line break. */
+    private static List<Chunk> split(MappedByteBuffer buffer, int target) {
+        int limit = buffer.limit();
+        int chunkBytes = Math.max(MIN_CHUNK_BYTES, limit / Math.max(1, target));
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < limit) {
+            int end = (int) Math.min((long) start + chunkBytes, limit);
+            while (end < limit && buffer.get(end - 1) != '\n') {
+                end++;
+            }
+            chunks.add(new Chunk(buffer, start, end));
+            start = end;
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,393 @@
+package dabot.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dabot.metrics.Metrics;
+import dabot.task.Task;
+import dabot.task.TaskListListener;
+
+/**
+ * Stores a task list as a directory of segment files, so that a save only rewrites the segments that changed.
+ * <p>
+ * Each segment holds a run of up to {@link #SEGMENT_SIZE} consecutive tasks.
+ * Attached to a {@link dabot.task.TaskList} as a listener, the store marks
+ * the segment that each add, delete, mark or unmark touched as dirty, and
+ * {@link #stage(List, SnapshotFormat)} re-encodes only those. A delete
+ * shrinks its segment instead of shifting later tasks across segment
+ * boundaries, so a change never dirties the segments after it. A segment
+ * that overflows is split in two and an empty one is dropped.
+ * </p>
+ * <p>
+ * A rewritten segment is stored under a new file name, and the
+ * {@code manifest}, which lists the segment files in order with their task
+ * counts, is replaced last by an atomic rename. A crash before that leaves
+ * the previous manifest and every file it names intact. Files that the
+ * current manifest does not name are deleted after each commit.
+ * </p>
+ */
+final class SegmentedStore implements TaskListListener {
+    /** Most tasks a segment holds before it is split. */
+    static final int SEGMENT_SIZE = 1024;
+
+    private static final String MANIFEST = "manifest";
+    private static final String HEADER = "# dabot segments 1";
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private final Path dir;
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextId;
+    private boolean isAttached;
+    private boolean isManifestDirty = true;
+    private Map<Long, SnapshotFormat.Encoded> stagedSegments = new LinkedHashMap<>();
+    private String stagedManifest;
+
+    /** A run of consecutive tasks stored in one file. */
+    private static final class Segment {
+        private long id;
+        private int count;
+        private boolean isDirty;
+
+        Segment(long id, int count, boolean isDirty) {
+            this.id = id;
+            this.count = count;
+            this.isDirty = isDirty;
+        }
+    }
+
+    /**
+     * Creates a store in {@code dir}; nothing is written until the first commit.
+     *
+     * @param dir directory holding the manifest and segment files
+     */
+    SegmentedStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Returns whether a committed manifest exists.
+     *
+     * @return {@code true} if {@link #load(List, LoadReport)} has segments to read
+     */
+    boolean exists() {
+        return Files.exists(dir.resolve(MANIFEST));
+    }
+
+    /**
+     * Reads every segment named by the manifest, in order, appending the tasks to {@code tasks}.
+     * <p>
+     * Skipped records are reported with their line number in the stitched list.
+     * If any were skipped, the segments no longer line up with the list, and the
+     * next save rewrites all of them.
+     * </p>
+     *
+     * @param tasks  list receiving the tasks
+     * @param report receives the records that were skipped
+     * @throws IOException if the manifest or a segment cannot be read
+     */
+    void load(List<Task> tasks, LoadReport report) throws IOException {
+        segments.clear();
+        isAttached = false;
+        boolean isAligned = true;
+        try (BufferedReader manifest = Files.newBufferedReader(dir.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(manifest.readLine())) {
+                throw new IOException("Not a DaBot segment manifest: " + dir.resolve(MANIFEST));
+            }
+            String line;
+            while ((line = manifest.readLine()) != null) {
+                int space = line.indexOf(' ');
+                long id;
+                int count;
+                try {
+                    id = Long.parseLong(line.substring(0, space));
+                    count = Integer.parseInt(line.substring(space + 1));
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    throw new IOException("Invalid segment manifest line: " + line);
+                }
+                int before = tasks.size();
+                LoadReport segmentReport = new LoadReport();
+                readSegment(segmentFile(id), tasks, segmentReport);
+                report.addAll(segmentReport, before);
+                isAligned &= segmentReport.isEmpty() && tasks.size() - before == count;
+                segments.add(new Segment(id, tasks.size() - before, false));
+                nextId = Math.max(nextId, id + 1);
+            }
+        }
+        isManifestDirty = !isAligned;
+        if (!isAligned) {
+            markAllDirty();
+        }
+    }
+
+    private static void readSegment(Path file, List<Task> tasks, LoadReport report) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), SnapshotFormat.BUFFER_SIZE)) {
+            in.mark(4);
+            byte[] head = in.readNBytes(4);
+            in.reset();
+            SnapshotFormat.detect(head).readInto(in, tasks, report);
+        }
+    }
+
+    /**
+     * Starts tracking changes to the list that {@link #load(List, LoadReport)} returned, or to an empty list.
+     */
+    void attach() {
+        isAttached = true;
+    }
+
+    /**
+     * Encodes the segments of {@code tasks} that changed since the last stage, plus a new manifest.
+     * <p>
+     * Must be called on the thread that owns the tasks; the encoded bytes are
+     * written later by {@link #commit(Metrics)}. If the store is not attached,
+     * so it cannot know what changed, or its segments do not add up to the
+     * list, the whole list is split into fresh segments.
+     * </p>
+     *
+     * @param tasks  the full task list
+     * @param format format to encode the segments in
+     * @return number of segments encoded
+     */
+    int stage(List<Task> tasks, SnapshotFormat format) {
+        if (!isAttached || totalCount() != tasks.size()) {
+            repartition(tasks.size());
+        }
+        Map<Long, SnapshotFormat.Encoded> encoded = new LinkedHashMap<>();
+        StringBuilder manifest = new StringBuilder(HEADER).append('\n');
+        int offset = 0;
+        for (Segment s : segments) {
+            if (s.isDirty) {
+                s.id = nextId++;
+                s.isDirty = false;
+                encoded.put(s.id, format.encode(tasks.subList(offset, offset + s.count)));
+            }
+            manifest.append(s.id).append(' ').append(s.count).append('\n');
+            offset += s.count;
+        }
+        if (encoded.isEmpty() && !isManifestDirty) {
+            return 0; // nothing changed since the last stage
+        }
+        isManifestDirty = false;
+        synchronized (this) {
+            // segments staged earlier but not yet committed may still be named by this manifest
+            stagedSegments.putAll(encoded);
+            stagedManifest = manifest.toString();
+        }
+        return encoded.size();
+    }
+
+    /**
+     * Writes the staged segments and then the manifest, and deletes the files that are no longer named.
+     *
+     * @param metrics where bytes written and fsync times are recorded
+     * @return {@code true} if a new manifest was committed
+     * @throws IOException if a file cannot be written
+     */
+    boolean commit(Metrics metrics) throws IOException {
+        Map<Long, SnapshotFormat.Encoded> toWrite;
+        String manifest;
+        synchronized (this) {
+            if (stagedManifest == null) {
+                return false;
+            }
+            toWrite = stagedSegments;
+            manifest = stagedManifest;
+            stagedSegments = new LinkedHashMap<>();
+            stagedManifest = null;
+        }
+        try {
+            writeAll(toWrite, manifest, metrics);
+        } catch (IOException e) {
+            synchronized (this) {
+                // keep the segments for the next attempt; a newer manifest may still name them
+                toWrite.putAll(stagedSegments);
+                stagedSegments = toWrite;
+                if (stagedManifest == null) {
+                    stagedManifest = manifest;
+                }
+            }
+            throw e;
+        }
+        deleteUnnamed(manifest);
+        return true;
+    }
+
+    private void writeAll(Map<Long, SnapshotFormat.Encoded> toWrite, String manifest, Metrics metrics)
+            throws IOException {
+        Files.createDirectories(dir);
+        for (Map.Entry<Long, SnapshotFormat.Encoded> e : toWrite.entrySet()) {
+            write(segmentFile(e.getKey()), e.getValue()::writeTo, metrics);
+        }
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        byte[] bytes = manifest.getBytes(StandardCharsets.UTF_8);
+        write(tmp, out -> out.write(bytes), metrics);
+        try {
+            Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Produces the content of a file. */
+    private interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /** Writes one file and syncs it. */
+    private static void write(Path file, Content content, Metrics metrics) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            content.writeTo(Channels.newOutputStream(channel));
+            metrics.recordBytesWritten(channel.position());
+            long start = System.nanoTime();
+            channel.force(true);
+            metrics.recordFsync(System.nanoTime() - start);
+        }
+    }
+
+    private void deleteUnnamed(String manifest) throws IOException {
+        Set<String> named = new HashSet<>();
+        for (String line : manifest.split("\n")) {
+            if (!line.startsWith("#")) {
+                named.add(SEGMENT_PREFIX + line.substring(0, line.indexOf(' ')));
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*")) {
+            for (Path f : files) {
+                if (!named.contains(f.getFileName().toString())) {
+                    Files.deleteIfExists(f);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the manifest and every segment file, e.g. once the list has been saved as a single file.
+     * Safe to call from any thread while the store is not attached.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    void deleteAll() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Files.deleteIfExists(dir.resolve(MANIFEST)); // first, so a crash part-way leaves no half a list behind
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                Files.deleteIfExists(f);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private Path segmentFile(long id) {
+        return dir.resolve(SEGMENT_PREFIX + id);
+    }
+
+    private int totalCount() {
+        int total = 0;
+        for (Segment s : segments) {
+            total += s.count;
+        }
+        return total;
+    }
+
+    private void repartition(int size) {
+        segments.clear();
+        for (int from = 0; from < size; from += SEGMENT_SIZE) {
+            segments.add(new Segment(nextId++, Math.min(SEGMENT_SIZE, size - from), true));
+        }
+        isManifestDirty = true;
+    }
+
+    private void markAllDirty() {
+        for (Segment s : segments) {
+            s.isDirty = true;
+        }
+    }
+
+    /**
+     * Returns the position in {@link #segments} of the segment holding list index {@code index}.
+     * An index one past the end belongs to the last segment.
+     *
+     * @return position of the segment, and in {@code offset[0]} the list index of its first task
+     */
+    private int locate(int index, int[] offset) {
+        int start = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int count = segments.get(i).count;
+            if (index < start + count || i == segments.size() - 1) {
+                offset[0] = start;
+                return i;
+            }
+            start += count;
+        }
+        return -1;
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        if (!isAttached) {
+            return;
+        }
+        int[] offset = new int[1];
+        int i = locate(index, offset);
+        boolean isAppend = i < 0 || (i == segments.size() - 1 && index == offset[0] + segments.get(i).count);
+        if (i < 0 || (isAppend && segments.get(i).count >= SEGMENT_SIZE)) {
+            segments.add(new Segment(nextId++, 1, true));
+            return;
+        }
+        Segment s = segments.get(i);
+        s.count++;
+        s.isDirty = true;
+        if (s.count > SEGMENT_SIZE) {
+            int half = s.count / 2;
+            segments.add(i + 1, new Segment(nextId++, s.count - half, true));
+            s.count = half;
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        if (!isAttached) {
+            return;
+        }
+        int[] offset = new int[1];
+        int i = locate(index, offset);
+        Segment s = segments.get(i);
+        s.count--;
+        s.isDirty = true;
+        if (s.count == 0) {
+            segments.remove(i);
+            isManifestDirty = true;
+        }
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        if (!isAttached) {
+            return;
+        }
+        int[] offset = new int[1];
+        segments.get(locate(index, offset)).isDirty = true;
+    }
+}
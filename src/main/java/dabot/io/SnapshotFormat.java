@@ -0,0 +1,229 @@
+package dabot.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import dabot.main.DabotException;
+import dabot.task.BinaryTaskCodec;
+import dabot.task.Task;
+
+/**
+ * On-disk layouts a task snapshot can be stored in.
+ * <p>
+ * {@link #TEXT} is the original one-task-per-line pipe-delimited format.
+ * {@link #BINARY} starts with the magic bytes {@code DABT}, a version byte and
+ * the task count, followed by one {@link BinaryTaskCodec} record per task.
+ * </p>
+ */
+public enum SnapshotFormat {
+    TEXT {
+        @Override
+        Encoded encode(List<Task> tasks) {
+            List<String> lines = new ArrayList<>(tasks.size());
+            CRC32 crc = new CRC32();
+            MappedTaskList mapped = tasks instanceof MappedTaskList ? (MappedTaskList) tasks : null;
+            for (int i = 0; i < tasks.size(); i++) {
+                String line = mapped != null ? mapped.encodedLine(i) : tasks.get(i).encodeString();
+                lines.add(line);
+                crc.update(line.getBytes(StandardCharsets.UTF_8));
+                crc.update('\n');
+            }
+            long checksum = crc.getValue();
+            return new Encoded() {
+                @Override
+                public long checksum() {
+                    return checksum;
+                }
+
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                            BUFFER_SIZE);
+                    for (String line : lines) {
+                        bw.write(line);
+                        bw.write(System.lineSeparator());
+                    }
+                    bw.flush();
+                }
+            };
+        }
+
+        @Override
+        long checksum(List<Task> tasks) {
+            if (!(tasks instanceof MappedTaskList)) {
+                return super.checksum(tasks);
+            }
+            CRC32 crc = new CRC32();
+            ((MappedTaskList) tasks).updateChecksum(crc);
+            return crc.getValue();
+        }
+
+        @Override
+        void readInto(InputStream in, List<Task> tasks, LoadReport report) throws IOException {
+            BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+            String line;
+            long lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                try {
+                    tasks.add(Task.decodeString(line));
+                } catch (DabotException e) {
+                    report.add(lineNumber, e.getMessage());
+                }
+            }
+        }
+    },
+
+    BINARY {
+        @Override
+        Encoded encode(List<Task> tasks) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(tasks.size() * 32 + 16);
+            try {
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(tasks.size());
+                for (Task t : tasks) {
+                    BinaryTaskCodec.write(out, t);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new AssertionError("In-memory write cannot fail", e);
+            }
+            byte[] data = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            long checksum = crc.getValue();
+            return new Encoded() {
+                @Override
+                public long checksum() {
+                    return checksum;
+                }
+
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    out.write(data);
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        void readInto(InputStream in, List<Task> tasks, LoadReport report) throws IOException {
+            DataInputStream din = new DataInputStream(in);
+            if (din.readInt() != MAGIC) {
+                throw new IOException("Not a DaBot binary file");
+            }
+            int version = din.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary format version " + version);
+            }
+            int count = din.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt task count " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                try {
+                    tasks.add(BinaryTaskCodec.read(din));
+                } catch (DabotException e) {
+                    // records have no markers to resync on, so nothing after a corrupt one can be trusted
+                    report.add(0, "task " + (i + 1) + " of " + count + " is corrupt (" + e.getMessage()
+                            + "), dropped it and the " + (count - i - 1) + " after it");
+                    return;
+                } catch (EOFException e) {
+                    report.add(0, "file ends after " + i + " of " + count + " tasks");
+                    return;
+                }
+            }
+        }
+    };
+
+    /** The bytes {@code DABT} that open every binary snapshot. */
+    static final int MAGIC = 0x44414254;
+    static final int VERSION = 1;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** An immutable encoded snapshot, safe to write from another thread. */
+    interface Encoded {
+        /**
+         * Returns a checksum identifying the encoded task list state.
+         *
+         * @return checksum of the encoded content
+         */
+        long checksum();
+
+        /**
+         * Writes the encoded snapshot to {@code out}.
+         *
+         * @param out destination stream; flushed but not closed
+         * @throws IOException if writing fails
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes {@code tasks} into an immutable snapshot.
+     * Must be called on the thread that owns the tasks.
+     *
+     * @param tasks tasks to encode
+     * @return the encoded snapshot
+     */
+    abstract Encoded encode(List<Task> tasks);
+
+    /**
+     * Returns the checksum {@link #encode(List)} would report for {@code tasks}.
+     *
+     * @param tasks tasks to checksum
+     * @return checksum of the encoded content
+     */
+    long checksum(List<Task> tasks) {
+        return encode(tasks).checksum();
+    }
+
+    /**
+     * Decodes a snapshot from {@code in}, appending each task to {@code tasks}.
+     *
+     * @param in     source stream; not closed
+     * @param tasks  list receiving the decoded tasks
+     * @param report receives the records that were skipped
+     * @throws IOException if the stream cannot be read
+     */
+    abstract void readInto(InputStream in, List<Task> tasks, LoadReport report) throws IOException;
+
+    /**
+     * Returns the format a file should be written in, judged by its extension.
+     *
+     * @param filePath path of the snapshot file
+     * @return {@link #BINARY} for {@code .bin} files, {@link #TEXT} otherwise
+     */
+    public static SnapshotFormat forPath(String filePath) {
+        return filePath.endsWith(".bin") ? BINARY : TEXT;
+    }
+
+    /**
+     * Returns the format of existing snapshot content, judged by its first four bytes.
+     *
+     * @param head the first bytes of the file (may be shorter than four)
+     * @return {@link #BINARY} if {@code head} starts with the magic bytes, {@link #TEXT} otherwise
+     */
+    static SnapshotFormat detect(byte[] head) {
+        if (head.length < 4) {
+            return TEXT;
+        }
+        int magic = (head[0] & 0xff) << 24 | (head[1] & 0xff) << 16 | (head[2] & 0xff) << 8 | (head[3] & 0xff);
+        return magic == MAGIC ? BINARY : TEXT;
+    }
+}
@@ -1,15 +1,32 @@
 package dabot.io;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import dabot.main.DabotException;
+import dabot.metrics.Metrics;
+import dabot.task.ColumnarTaskList;
+import dabot.task.RankedList;
 import dabot.task.Task;
+import dabot.task.TaskList;
 /**
  * Handles saving and loading of {@link Task} objects to and from the disk.
  * <p>
@@ -18,9 +35,40 @@ import dabot.task.Task;
  * in a plain text file and encoded/decoded using {@link Task#encodeString()}
  * and {@link Task#decodeString(String)}.
  * </p>
+ * <p>
+ * In journaled mode, mutations are appended to a {@link Journal} next to the
+ * file instead of rewriting it on every save. Once the journal grows past a
+ * threshold it is compacted into a fresh snapshot on a background thread.
+ * </p>
+ * <p>
+ * In segmented mode the list is split into segment files instead, and a
+ * save only rewrites the segments whose tasks changed; see {@link SegmentedStore}.
+ * </p>
+ * <p>
+ * Snapshots are written as text or in a compact binary layout; see
+ * {@link SnapshotFormat}. Snapshots are always written to a temporary file, synced, and renamed over
+ * the old file, so the task list on disk is never half-written.
+ * </p>
  */
 public class Storage {
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
     private final String filePath;
+    private final Journal journal;
+    private final ExecutorService compactor;
+    private final SegmentedStore segmentStore;
+    private final AtomicReference<SnapshotFormat.Encoded> pendingSnapshot = new AtomicReference<>();
+    private SnapshotFormat format;
+    private boolean isMemoryMapped;
+    private boolean isSegmented;
+    private boolean isColumnar;
+    private ForkJoinPool loadPool;
+    private LoadReport lastLoadReport = new LoadReport();
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private Future<?> pendingCompaction;
+    private long syncWindowMillis;
+    private GroupCommit committer;
+    private Metrics metrics = new Metrics();
 
     /**
      * Constructs a {@code Storage} object to manage a given file path.
@@ -28,7 +76,175 @@ public class Storage {
      * @param filePath the path to the file where tasks will be saved/loaded
      */
     public Storage(String filePath) {
+        this(filePath, false);
+    }
+
+    /**
+     * Constructs a {@code Storage} object, optionally in journaled mode.
+     *
+     * @param filePath    the path to the snapshot file where tasks will be saved/loaded
+     * @param isJournaled whether mutations are appended to a journal instead of rewriting the file
+     */
+    public Storage(String filePath, boolean isJournaled) {
         this.filePath = filePath;
+        this.format = SnapshotFormat.forPath(filePath);
+        this.journal = isJournaled ? new Journal(filePath) : null;
+        this.segmentStore = new SegmentedStore(Paths.get(filePath + ".segments"));
+        this.compactor = isJournaled ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "dabot-compactor");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    /**
+     * Creates a {@code Storage} configured from JVM system properties.
+     * <ul>
+     *   <li>{@code dabot.journal} - {@code true} to enable journaled mode</li>
+     *   <li>{@code dabot.syncWindowMs} - group commit window in milliseconds (default 0)</li>
+     *   <li>{@code dabot.format} - {@code text} or {@code binary}; defaults to the file extension</li>
+     *   <li>{@code dabot.mmap} - {@code true} to memory-map the file and decode tasks on demand</li>
+     *   <li>{@code dabot.parallelLoad} - {@code true} to decode the file on all cores</li>
+     *   <li>{@code dabot.segmented} - {@code true} to save in segments that are rewritten only when changed</li>
+     *   <li>{@code dabot.columnar} - {@code true} to hold the loaded tasks in a {@link ColumnarTaskList}</li>
+     * </ul>
+     *
+     * @param filePath the path to the file where tasks will be saved/loaded
+     * @return the configured storage
+     */
+    public static Storage fromSystemProperties(String filePath) {
+        Storage storage = new Storage(filePath, Boolean.getBoolean("dabot.journal"));
+        storage.setSyncWindow(Long.getLong("dabot.syncWindowMs", 0L));
+        storage.setMemoryMapped(Boolean.getBoolean("dabot.mmap"));
+        storage.setParallelLoad(Boolean.getBoolean("dabot.parallelLoad"));
+        storage.setSegmented(Boolean.getBoolean("dabot.segmented"));
+        storage.setColumnar(Boolean.getBoolean("dabot.columnar"));
+        String format = System.getProperty("dabot.format");
+        if (format != null) {
+            storage.setFormat(SnapshotFormat.valueOf(format.toUpperCase()));
+        }
+        return storage;
+    }
+
+    /**
+     * Sets the format used when writing the snapshot.
+     * <p>
+     * Loading always detects the format of the existing file, so changing the
+     * format converts the file on the next save.
+     * </p>
+     *
+     * @param format the format to write
+     */
+    public void setFormat(SnapshotFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Sets where bytes written and fsync times are reported.
+     *
+     * @param metrics metrics to record into
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets whether {@link #load()} memory-maps a text file and decodes tasks on demand.
+     * Binary files and files of 2 GiB or more are always loaded eagerly.
+     *
+     * @param isMemoryMapped whether to load lazily
+     */
+    public void setMemoryMapped(boolean isMemoryMapped) {
+        this.isMemoryMapped = isMemoryMapped;
+    }
+
+    /**
+     * Sets whether {@link #load()} decodes text files on all available cores.
+     * Memory-mapped loading takes precedence when both are enabled.
+     *
+     * @param isParallel whether to decode in parallel
+     */
+    public void setParallelLoad(boolean isParallel) {
+        this.loadPool = isParallel ? ForkJoinPool.commonPool() : null;
+    }
+
+    /**
+     * Sets whether saves go to segment files in {@code FILE.segments}, rewriting only the segments that changed.
+     * <p>
+     * Segments can only be tracked once the loaded list is {@link #attach(TaskList) attached}; until
+     * then every save rewrites all of them. Ignored in journaled mode, which already avoids rewriting
+     * the whole file. Either kind of save replaces what the other wrote, so switching modes converts
+     * the tasks on the next save.
+     * </p>
+     *
+     * @param isSegmented whether to save in segments
+     */
+    public void setSegmented(boolean isSegmented) {
+        this.isSegmented = isSegmented && journal == null;
+    }
+
+    /**
+     * Sets whether {@link #load()} returns a {@link ColumnarTaskList}, which takes far less memory per task.
+     * Takes precedence over memory-mapped loading.
+     *
+     * @param isColumnar whether to load into columns
+     */
+    public void setColumnar(boolean isColumnar) {
+        this.isColumnar = isColumnar;
+    }
+
+    /**
+     * Converts a task file from one format to another.
+     * Each file's format is judged by its extension ({@code .bin} for binary),
+     * and the source file may be in either format.
+     *
+     * @param sourcePath file to read
+     * @param targetPath file to write
+     * @throws DabotException if either file cannot be accessed
+     */
+    public static void convert(String sourcePath, String targetPath) throws DabotException {
+        List<Task> tasks = new Storage(sourcePath).load();
+        new Storage(targetPath).save(tasks);
+    }
+
+    /**
+     * Sets how many journal records may accumulate before a compaction is started.
+     *
+     * @param threshold number of records; must be positive
+     */
+    public void setCompactionThreshold(int threshold) {
+        assert threshold > 0 : "Compaction threshold must be positive";
+        this.compactionThreshold = threshold;
+    }
+
+    /**
+     * Sets the group commit window. Saves arriving within one window share a single
+     * write and sync; {@code 0} (the default) makes every save durable before it returns.
+     * Must be called before the first save.
+     *
+     * @param millis window length in milliseconds
+     */
+    public void setSyncWindow(long millis) {
+        assert committer == null : "Sync window must be set before the first save";
+        this.syncWindowMillis = millis;
+    }
+
+    /**
+     * Starts tracking mutations of {@code tasks} when in journaled or segmented mode.
+     * <p>
+     * Must be called with the list built from {@link #load()} before it is modified.
+     * Does nothing in plain mode.
+     * </p>
+     *
+     * @param tasks the task list to track
+     */
+    public void attach(TaskList tasks) {
+        if (journal != null) {
+            tasks.addListener(journal);
+        } else if (isSegmented) {
+            segmentStore.attach();
+            tasks.addListener(segmentStore);
+        }
     }
 
     /**
@@ -36,66 +252,246 @@ public class Storage {
      * <p>
      * Each line of the file is decoded into a {@link Task}. Invalid lines
      * are skipped with a warning. If the file does not exist, an empty list
-     * is returned.
+     * is returned. Skipped lines are printed once, in file order, and are
+     * available afterwards from {@link #getLastLoadReport()}.
+     * </p>
+     * <p>
+     * With parallel loading enabled, a text file is split into line-aligned
+     * chunks that are decoded on a {@link ForkJoinPool}.
+     * In memory-mapped mode a text file is mapped instead and only indexed;
+     * each task is decoded the first time it is accessed. Wrap the result with
+     * {@link TaskList#wrap(List)} to keep it lazy.
+     * </p>
+     * <p>
+     * If a segmented save has been committed, the segments are read and
+     * stitched together in order instead, whatever mode this storage is in.
      * </p>
      *
      * @return a list of tasks loaded from file; empty if file is missing
      * @throws DabotException if the file cannot be read due to I/O issues
      */
     public List<Task> load() throws DabotException {
-        List<Task> list = new ArrayList<>();
+        List<Task> list = isColumnar ? new ColumnarTaskList() : new RankedList<>();
         File f = new File(filePath);
+        LoadReport report = new LoadReport();
+        lastLoadReport = report;
         try {
             File parent = f.getParentFile();
             if (parent != null) {
                 parent.mkdirs();
             }
 
-            if (!f.exists()) {
-                return list;
-            }
-
-            try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    try {
-                        list.add(Task.decodeString(line));
-                    } catch (DabotException e) {
-                        System.out.println("Skipping bad task line: " + e.getMessage());
-                    }
+            SnapshotFormat fileFormat = format;
+            if (segmentStore.exists()) {
+                segmentStore.load(list, report);
+            } else if (f.exists()) {
+                fileFormat = detectFormat(f);
+                boolean isMappable = fileFormat == SnapshotFormat.TEXT && f.length() < Integer.MAX_VALUE;
+                if (isMemoryMapped && isMappable && !isColumnar) {
+                    list = MappedTaskList.map(f.toPath(), report);
+                } else if (loadPool != null && isMappable) {
+                    List<Task> loaded = ParallelTextLoader.load(f.toPath(), loadPool, report);
+                    list = isColumnar ? new ColumnarTaskList(loaded) : new RankedList<>(loaded);
+                } else {
+                    readSnapshot(f, fileFormat, list, report);
                 }
             }
+            if (!report.isEmpty()) {
+                System.out.println(report);
+            }
+            if (journal != null) {
+                openJournal(list, fileFormat);
+            }
             return list;
         } catch (IOException e) {
             throw new DabotException("Failed to load tasks: " + e.getMessage());
         }
     }
 
+    private static SnapshotFormat detectFormat(File f) throws IOException {
+        try (InputStream in = new FileInputStream(f)) {
+            return SnapshotFormat.detect(in.readNBytes(4));
+        }
+    }
+
+    private static void readSnapshot(File f, SnapshotFormat fileFormat, List<Task> list, LoadReport report)
+            throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(f), SnapshotFormat.BUFFER_SIZE)) {
+            fileFormat.readInto(in, list, report);
+        }
+    }
+
+    /**
+     * Returns the diagnostics of the most recent {@link #load()}.
+     *
+     * @return lines skipped by the last load, in file order; empty if nothing has been loaded
+     */
+    public LoadReport getLastLoadReport() {
+        return lastLoadReport;
+    }
+
+    /**
+     * Replays any journals onto the snapshot and prepares the live journal for appending.
+     * If leftover or stale journals were found, or the snapshot is not in the configured
+     * format, the replayed state is compacted first. A first journal simply starts on top
+     * of the existing snapshot.
+     */
+    private void openJournal(List<Task> list, SnapshotFormat fileFormat) throws DabotException {
+        boolean isFirstJournal = !journal.exists();
+        if (journal.replayInto(list, fileFormat) && fileFormat == format) {
+            journal.reopen();
+            return;
+        }
+        if (isFirstJournal && fileFormat == format) {
+            journal.rotate(format.checksum(list));
+            return;
+        }
+        SnapshotFormat.Encoded snapshot = format.encode(list);
+        try {
+            writeSnapshot(snapshot);
+        } catch (IOException e) {
+            throw new DabotException("Failed to save tasks: " + e.getMessage());
+        }
+        journal.discardRotated();
+        journal.rotate(snapshot.checksum());
+        journal.discardRotated();
+    }
+
     /**
      * Saves a list of tasks into the storage file.
      * <p>
      * Each task is written on a new line using its encoded string form.
      * Creates the file and parent directories if they do not exist.
+     * The file is replaced atomically, so a crash mid-save leaves the
+     * previous version intact. With a sync window set, saves arriving within
+     * the window are written and synced once.
      * </p>
      *
      * @param tasks the list of tasks to save
      * @throws DabotException if the tasks cannot be saved due to I/O issues
      */
     public void save(List<Task> tasks) throws DabotException {
-        File f = new File(filePath);
-        try {
-            File parent = f.getParentFile();
-            if (parent != null) {
-                parent.mkdirs();
+        if (journal != null) {
+            metrics.recordBytesWritten(journal.flush());
+            if (journal.recordCount() >= compactionThreshold) {
+                compact(tasks);
+            } else {
+                committer().request();
             }
-            try (FileWriter fw = new FileWriter(f)) {
-                for (Task t : tasks) {
-                    fw.write(t.encodeString());
-                    fw.write(System.lineSeparator());
+            return;
+        }
+        if (isSegmented) {
+            segmentStore.stage(tasks, format);
+            committer().request();
+            return;
+        }
+        File parent = new File(filePath).getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        pendingSnapshot.set(format.encode(tasks));
+        committer().request();
+    }
+
+    private GroupCommit committer() {
+        if (committer == null) {
+            committer = new GroupCommit(this::commitPending, syncWindowMillis);
+        }
+        return committer;
+    }
+
+    /** Makes every save so far durable: syncs the journal, or writes the changed segments or the latest snapshot. */
+    private void commitPending() throws IOException {
+        if (journal != null) {
+            long start = System.nanoTime();
+            journal.force();
+            metrics.recordFsync(System.nanoTime() - start);
+            return;
+        }
+        if (isSegmented) {
+            if (segmentStore.commit(metrics)) {
+                try {
+                    Files.deleteIfExists(Paths.get(filePath));
+                } catch (IOException e) {
+                    // e.g. still memory-mapped on Windows; harmless, as the segments are loaded in its place
                 }
             }
-        } catch (IOException e) {
-            throw new DabotException("Failed to save tasks: " + e.getMessage());
+            return;
+        }
+        SnapshotFormat.Encoded snapshot = pendingSnapshot.getAndSet(null);
+        if (snapshot != null) {
+            writeSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Folds the live journal into a new snapshot of {@code tasks}.
+     * <p>
+     * Tasks are encoded on the calling thread so that later mutations cannot
+     * race with the snapshot; the file itself is written in the background.
+     * </p>
+     */
+    private void compact(List<Task> tasks) throws DabotException {
+        awaitCompaction();
+        committer().drain();
+        SnapshotFormat.Encoded snapshot = format.encode(tasks);
+        journal.rotate(snapshot.checksum());
+        pendingCompaction = compactor.submit(() -> {
+            writeSnapshot(snapshot);
+            journal.discardRotated();
+            return null;
+        });
+    }
+
+    private void awaitCompaction() throws DabotException {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DabotException("Interrupted while compacting tasks.");
+        } catch (ExecutionException e) {
+            throw new DabotException("Failed to compact tasks: " + e.getCause().getMessage());
+        } finally {
+            pendingCompaction = null;
+        }
+    }
+
+    /**
+     * Writes {@code snapshot} to a temporary file, syncs it, and renames it over the snapshot file.
+     */
+    private void writeSnapshot(SnapshotFormat.Encoded snapshot) throws IOException {
+        Path target = Paths.get(filePath);
+        Path tmp = Paths.get(filePath + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            snapshot.writeTo(Channels.newOutputStream(channel));
+            metrics.recordBytesWritten(channel.position());
+            long start = System.nanoTime();
+            channel.force(true);
+            metrics.recordFsync(System.nanoTime() - start);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        segmentStore.deleteAll(); // left over from segmented mode, and would be loaded in place of this file
+    }
+
+    /**
+     * Flushes outstanding saves and waits for any background compaction.
+     * The storage stays usable afterwards.
+     *
+     * @throws DabotException if pending data cannot be written
+     */
+    public void sync() throws DabotException {
+        if (journal != null) {
+            metrics.recordBytesWritten(journal.flush());
         }
+        committer().drain();
+        awaitCompaction();
     }
 }
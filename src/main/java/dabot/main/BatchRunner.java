@@ -0,0 +1,155 @@
+package dabot.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Runs a file of commands through {@link DaBot#handle(String)} without user interaction.
+ * <p>
+ * Commands are streamed one line at a time, so logs larger than memory can
+ * be replayed. Saves are deferred while the commands run and written once
+ * at the end, and optionally every {@code checkpointEvery} commands, so an
+ * import of many tasks does not rewrite the task file after every line.
+ * Running stops after {@code bye}, as in the interactive loop.
+ * </p>
+ */
+public class BatchRunner {
+    private final DaBot bot;
+    private final PrintStream out;
+    private final int checkpointEvery;
+
+    /** Counts and timing of one batch run. */
+    public static final class Result {
+        private final long commandCount;
+        private final long elapsedNanos;
+
+        Result(long commandCount, long elapsedNanos) {
+            this.commandCount = commandCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns how many commands were run; blank lines are not counted.
+         *
+         * @return number of commands
+         */
+        public long getCommandCount() {
+            return commandCount;
+        }
+
+        /**
+         * Returns the throughput of the run, including the final save.
+         *
+         * @return commands per second
+         */
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : commandCount * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ran %d commands in %.3f s (%.0f commands/s).",
+                    commandCount, elapsedNanos / 1e9, getCommandsPerSecond());
+        }
+    }
+
+    /**
+     * Creates a runner for {@code bot}.
+     *
+     * @param bot             bot to send the commands to
+     * @param out             where to print each reply, or {@code null} to discard them
+     * @param checkpointEvery save after this many commands; {@code 0} saves only at the end
+     */
+    public BatchRunner(DaBot bot, PrintStream out, int checkpointEvery) {
+        assert checkpointEvery >= 0 : "Checkpoint interval cannot be negative";
+        this.bot = bot;
+        this.out = out;
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    /**
+     * Runs every command read from {@code in}, then saves once.
+     *
+     * @param in commands, one per line
+     * @return counts and timing of the run
+     * @throws IOException    if the commands cannot be read
+     * @throws DabotException if the task list cannot be saved
+     */
+    public Result run(BufferedReader in) throws IOException, DabotException {
+        long start = System.nanoTime();
+        long count = 0;
+        bot.setSaveDeferred(true);
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.trim();
+                if (command.isEmpty()) {
+                    continue;
+                }
+                if (out != null) {
+                    bot.handle(command, out);
+                    out.println();
+                } else {
+                    bot.handle(command);
+                }
+                count++;
+                if (checkpointEvery > 0 && count % checkpointEvery == 0) {
+                    bot.flush();
+                }
+                if (bot.isExitRequested()) {
+                    break;
+                }
+            }
+            bot.flush();
+        } finally {
+            bot.setSaveDeferred(false);
+        }
+        return new Result(count, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs {@code --batch FILE [--checkpoint N] [--quiet]} for {@link DaBot#main(String[])}.
+     * <p>
+     * Replies are printed unless {@code --quiet} is given; the summary line is always printed.
+     * </p>
+     *
+     * @param bot  bot to send the commands to
+     * @param args command-line arguments, starting with {@code --batch}
+     */
+    static void main(DaBot bot, String[] args) {
+        String file = null;
+        int checkpointEvery = 0;
+        boolean isQuiet = false;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--checkpoint") && i + 1 < args.length) {
+                    checkpointEvery = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--quiet")) {
+                    isQuiet = true;
+                } else if (file == null) {
+                    file = args[i];
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            file = null;
+        }
+        if (file == null || checkpointEvery < 0) {
+            System.out.println("Usage: --batch FILE [--checkpoint N] [--quiet]");
+            return;
+        }
+        BatchRunner runner = new BatchRunner(bot, isQuiet ? null : System.out, checkpointEvery);
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            System.out.println(runner.run(in));
+        } catch (IOException e) {
+            System.out.println("Failed to read commands: " + e.getMessage());
+        } catch (DabotException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
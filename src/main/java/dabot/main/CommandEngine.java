@@ -0,0 +1,331 @@
+package dabot.main;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dabot.io.Storage;
+import dabot.metrics.Metrics;
+import dabot.metrics.Metrics.Phase;
+import dabot.task.ColumnarTaskList;
+import dabot.task.StringPool;
+import dabot.task.Task;
+import dabot.task.TaskList;
+
+/**
+ * Runs DaBot commands against a task list; shared by the console and the GUI.
+ * <p>
+ * Each input line is split once by a {@link Lexer}; the command word is looked
+ * up in a {@link CommandRegistry} where it sits in the line, and the same tokens
+ * are handed to the {@link Parser}. Words that are not commands go to the task
+ * parser, which reports them as unknown.
+ * </p>
+ */
+public class CommandEngine {
+    private static final Set<String> READ_ONLY_COMMANDS = Set.of("list", "on", "find", "remind", "stats");
+
+    private final Storage storage;
+    private final TaskList tasks;
+    private final Metrics metrics;
+    private final CommandRegistry registry;
+    private final ThreadLocal<Metrics.Trace> traces = new ThreadLocal<>();
+    private boolean isSaveDeferred;
+    private boolean hasUnsavedChanges;
+    private boolean isExitRequested;
+
+    /**
+     * Creates an engine over a loaded task list.
+     *
+     * @param storage storage the list is attached to
+     * @param tasks   the task list to run commands against
+     * @param metrics metrics to time commands into
+     */
+    public CommandEngine(Storage storage, TaskList tasks, Metrics metrics) {
+        this.storage = storage;
+        this.tasks = tasks;
+        this.metrics = metrics;
+
+        Map<String, CommandRegistry.Command> commands = new LinkedHashMap<>();
+        commands.put("bye", (line, out) -> handleBye(out));
+        commands.put("stats", this::handleStats);
+        commands.put("list", this::handleList);
+        commands.put("on", this::handleOn);
+        commands.put("mark", this::handleMark);
+        commands.put("unmark", this::handleUnmark);
+        commands.put("delete", this::handleDelete);
+        commands.put("find", this::handleFind);
+        commands.put("remind", this::handleRemind);
+        commands.put("todo", this::handleAdd);
+        commands.put("deadline", this::handleAdd);
+        commands.put("event", this::handleAdd);
+        this.registry = new CommandRegistry(commands);
+    }
+
+    /**
+     * Parses a single user input and returns DaBot’s reply.
+     *
+     * @param input the user input line; may be {@code null}
+     * @return the reply to show the user
+     */
+    public String handle(String input) {
+        StringBuilder reply = new StringBuilder();
+        try {
+            handle(input, reply);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Parses a single user input and writes DaBot’s reply to {@code out} as it is rendered.
+     * <p>
+     * Long listings are written task by task, so the whole reply is never held
+     * in memory. The reply does not end with a line break.
+     * </p>
+     *
+     * @param input the user input line; may be {@code null}
+     * @param out   where to write the reply
+     * @throws IOException if writing to {@code out} fails
+     */
+    public void handle(String input, Appendable out) throws IOException {
+        Lexer line = Lexer.lex(input == null ? "" : input);
+        if (line.count() == 0) {
+            out.append("Please enter a command.");
+            return;
+        }
+        CommandRegistry.Entry entry = registry.lookup(line.line(), line.start(0), line.end(0));
+
+        Metrics.Trace trace = metrics.begin(entry != null ? entry.getName() : "other");
+        traces.set(trace);
+        try {
+            if (entry != null) {
+                entry.getCommand().run(line, out);
+            } else {
+                handleAdd(line, out);
+            }
+        } catch (DabotException e) {
+            out.append(e.getMessage());
+        } finally {
+            trace.end();
+            traces.remove();
+        }
+    }
+
+    /** Returns the timing of the command running on this thread. */
+    private Metrics.Trace trace() {
+        return traces.get();
+    }
+
+    /**
+     * Returns whether {@code input} is a command that only reads the task list.
+     * <p>
+     * When the list is a {@link dabot.task.ConcurrentTaskList}, such commands may run
+     * on several threads at once, and alongside a command that changes the list.
+     * </p>
+     *
+     * @param input the user input line; may be {@code null}
+     * @return {@code true} for {@code list}, {@code on}, {@code find}, {@code remind} and {@code stats}
+     */
+    public boolean isReadOnly(String input) {
+        Lexer line = Lexer.lex(input == null ? "" : input);
+        if (line.count() == 0) {
+            return false;
+        }
+        CommandRegistry.Entry entry = registry.lookup(line.line(), line.start(0), line.end(0));
+        return entry != null && READ_ONLY_COMMANDS.contains(entry.getName());
+    }
+
+    /**
+     * Returns whether a {@code bye} command has been handled.
+     *
+     * @return {@code true} once the user has said bye
+     */
+    public boolean isExitRequested() {
+        return isExitRequested;
+    }
+
+    private void handleBye(Appendable out) throws DabotException, IOException {
+        isExitRequested = true;
+        save();
+        flush();
+        trace().lap(Phase.SAVE);
+        out.append("Bye. Hope to see you again soon!");
+    }
+
+    private void handleStats(Lexer line, Appendable out) throws IOException {
+        out.append(metrics.report()).append('\n').append(StringPool.shared().report());
+        List<Task> all = tasks.asList();
+        if (all instanceof ColumnarTaskList) {
+            out.append('\n').append(((ColumnarTaskList) all).footprint());
+        }
+    }
+
+    private void handleList(Lexer line, Appendable out) throws DabotException, IOException {
+        Page page = Parser.parseListPage(line);
+        trace().lap(Phase.PARSE);
+        List<Task> all = tasks.asList(); // read once, so a concurrent list cannot change under the listing
+        if (all.isEmpty()) {
+            out.append("Your list is empty.");
+            return;
+        }
+        appendTasks(out, "Here are the tasks in your list", all, page, true);
+    }
+
+    private void handleOn(Lexer line, Appendable out) throws DabotException, IOException {
+        LocalDate[] range = Parser.parseOnRange(line);
+        trace().lap(Phase.PARSE);
+        var dayTasks = tasks.tasksBetween(range[0], range[1]);
+        trace().lap(Phase.EXECUTE);
+        String when = range[0].equals(range[1]) ? "on " + range[0] : "from " + range[0] + " to " + range[1];
+        if (dayTasks.isEmpty()) {
+            out.append("No tasks ").append(when).append('.');
+            return;
+        }
+        appendTasks(out, "Here are the tasks " + when, dayTasks, Page.ALL, false);
+    }
+
+    private void handleMark(Lexer line, Appendable out) throws DabotException, IOException {
+        int[] selected = Parser.parseIndexSelection(line, tasks);
+        trace().lap(Phase.PARSE);
+        List<Task> marked = tasks.markAll(selected);
+        trace().lap(Phase.EXECUTE);
+        save();
+        trace().lap(Phase.SAVE);
+        if (marked.size() == 1) {
+            out.append("Nice! I've marked this task as done:\n").append(marked.get(0).toString());
+            return;
+        }
+        out.append("Nice! I've marked " + marked.size() + " tasks as done.");
+    }
+
+    private void handleUnmark(Lexer line, Appendable out) throws DabotException, IOException {
+        int[] selected = Parser.parseIndexSelection(line, tasks);
+        trace().lap(Phase.PARSE);
+        List<Task> unmarked = tasks.unmarkAll(selected);
+        trace().lap(Phase.EXECUTE);
+        save();
+        trace().lap(Phase.SAVE);
+        if (unmarked.size() == 1) {
+            out.append("OK, I've marked this task as not done yet:\n").append(unmarked.get(0).toString());
+            return;
+        }
+        out.append("OK, I've marked " + unmarked.size() + " tasks as not done yet.");
+    }
+
+    private void handleDelete(Lexer line, Appendable out) throws DabotException, IOException {
+        int[] selected = Parser.parseIndexSelection(line, tasks);
+        trace().lap(Phase.PARSE);
+        List<Task> removed = tasks.deleteAll(selected);
+        trace().lap(Phase.EXECUTE);
+        save();
+        trace().lap(Phase.SAVE);
+        String what = removed.size() == 1
+                ? "this task:\n" + removed.get(0)
+                : removed.size() + " tasks.";
+        out.append("Noted. I've removed " + what
+                + "\nNow you have " + tasks.size() + " tasks in the list.");
+    }
+
+    private void handleFind(Lexer line, Appendable out) throws DabotException, IOException {
+        String keyword = Parser.parseFindKeyword(line);
+        Page page = Parser.parsePage(line, 2);
+        trace().lap(Phase.PARSE);
+        var found = tasks.find(keyword);
+        trace().lap(Phase.EXECUTE);
+        if (found.isEmpty()) {
+            out.append("No matching tasks for: ").append(keyword);
+            return;
+        }
+        appendTasks(out, "Here are the matching tasks", found, page, true);
+    }
+
+    private void handleAdd(Lexer line, Appendable out) throws DabotException, IOException {
+        Task task = Parser.parseTask(line);
+        trace().lap(Phase.PARSE);
+        tasks.add(task);
+        trace().lap(Phase.EXECUTE);
+        save();
+        trace().lap(Phase.SAVE);
+        out.append("Got it. I've added this task:\n\t" + task
+                + "\nNow you have " + tasks.size() + " tasks in the list.");
+    }
+
+    private void handleRemind(Lexer line, Appendable out) throws DabotException, IOException {
+        int days = Parser.parseRemindDays(line); // e.g. "remind 7"
+        Page page = Parser.parsePage(line, 1);
+        trace().lap(Phase.PARSE);
+        var upcoming = tasks.remindersWithinDays(days);
+        trace().lap(Phase.EXECUTE);
+        if (upcoming.isEmpty()) {
+            out.append("No upcoming tasks in the next " + days + " days.");
+            return;
+        }
+        appendTasks(out, "Here are the upcoming tasks in the next " + days + " days", upcoming, page, true);
+    }
+
+    /**
+     * Writes {@code header} and then the tasks of {@code page}, one per line.
+     * A partial page says which positions it shows; numbers are positions in {@code items}.
+     */
+    private static void appendTasks(Appendable out, String header, List<Task> items, Page page, boolean isNumbered)
+            throws IOException {
+        int total = items.size();
+        int from = page.from(total);
+        int to = page.to(total);
+        if (from == to) {
+            out.append("That page is empty; there are only " + total + " tasks to show.");
+            return;
+        }
+        out.append(header);
+        if (!page.isAll()) {
+            out.append(" (").append(Integer.toString(from + 1)).append('-').append(Integer.toString(to))
+                    .append(" of ").append(Integer.toString(total)).append(')');
+        }
+        out.append(':');
+        for (int i = from; i < to; i++) {
+            out.append('\n');
+            if (isNumbered) {
+                out.append(Integer.toString(i + 1)).append(". ");
+            }
+            out.append(items.get(i).toString());
+        }
+    }
+
+    private void save() throws DabotException {
+        if (isSaveDeferred) {
+            hasUnsavedChanges = true;
+            return;
+        }
+        storage.save(tasks.asList());
+    }
+
+    /**
+     * Makes commands only record that the list changed instead of saving it.
+     * <p>
+     * Used by {@link BatchRunner} so that a long run of commands is written
+     * once, by {@link #flush()}, rather than once per command.
+     * </p>
+     *
+     * @param isDeferred whether to defer saves
+     */
+    void setSaveDeferred(boolean isDeferred) {
+        this.isSaveDeferred = isDeferred;
+    }
+
+    /**
+     * Saves the list if a deferred command changed it since the last flush, and waits until it is on disk.
+     *
+     * @throws DabotException if the list cannot be saved
+     */
+    void flush() throws DabotException {
+        if (hasUnsavedChanges) {
+            hasUnsavedChanges = false;
+            storage.save(tasks.asList());
+        }
+        storage.sync();
+    }
+}
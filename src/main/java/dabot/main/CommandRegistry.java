@@ -0,0 +1,115 @@
+package dabot.main;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Maps command words to their handlers with a perfect hash.
+ * <p>
+ * The set of command words is fixed when the registry is built, so a seed is
+ * searched for that sends every word to its own slot. A lookup then hashes
+ * the command word where it sits in the input line, checks the single
+ * candidate slot, and never allocates a substring.
+ * </p>
+ */
+final class CommandRegistry {
+
+    /** Runs one command. */
+    interface Command {
+        /**
+         * Runs the command.
+         *
+         * @param line the lexed input line; token 0 is the command word
+         * @param out  where to write the reply
+         * @throws DabotException if the input is invalid or the command fails
+         * @throws IOException    if writing the reply fails
+         */
+        void run(Lexer line, Appendable out) throws DabotException, IOException;
+    }
+
+    /** A registered command word and its handler. */
+    static final class Entry {
+        private final String name;
+        private final Command command;
+
+        private Entry(String name, Command command) {
+            this.name = name;
+            this.command = command;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Command getCommand() {
+            return command;
+        }
+    }
+
+    private final Entry[] slots;
+    private final int seed;
+    private final int shift;
+
+    /**
+     * Builds a registry over {@code commands}.
+     *
+     * @param commands handlers by command word; must not be empty
+     */
+    CommandRegistry(Map<String, Command> commands) {
+        assert !commands.isEmpty() : "Registry needs at least one command";
+        int bits = 32 - Integer.numberOfLeadingZeros(commands.size() * 2 - 1);
+        int s = 0;
+        Entry[] table = null;
+        while (table == null) {
+            if (++s > 1 << 16) {
+                s = 1;
+                bits++; // no seed separates the words at this size; try a larger table
+            }
+            table = place(commands, s, 32 - bits);
+        }
+        this.slots = table;
+        this.seed = s;
+        this.shift = 32 - bits;
+    }
+
+    private static Entry[] place(Map<String, Command> commands, int seed, int shift) {
+        Entry[] table = new Entry[1 << (32 - shift)];
+        for (Map.Entry<String, Command> e : commands.entrySet()) {
+            String name = e.getKey();
+            int slot = slot(hash(name, 0, name.length()), seed, shift);
+            if (table[slot] != null) {
+                return null;
+            }
+            table[slot] = new Entry(name, e.getValue());
+        }
+        return table;
+    }
+
+    private static int hash(String text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return h;
+    }
+
+    private static int slot(int hash, int seed, int shift) {
+        return ((hash ^ seed) * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Finds the command whose word is {@code line[start, end)}.
+     *
+     * @param line  text containing the command word
+     * @param start index of the command word
+     * @param end   index just past the command word
+     * @return the entry, or {@code null} if the word is not a command
+     */
+    Entry lookup(String line, int start, int end) {
+        Entry e = slots[slot(hash(line, start, end), seed, shift)];
+        if (e == null || e.name.length() != end - start || !line.startsWith(e.name, start)) {
+            return null;
+        }
+        return e;
+    }
+}
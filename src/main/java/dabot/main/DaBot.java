@@ -1,21 +1,24 @@
 package dabot.main;
 
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
 
 import dabot.io.Storage;
 import dabot.io.Ui;
-import dabot.task.Task;
+import dabot.metrics.Metrics;
+import dabot.server.DaBotServer;
 import dabot.task.TaskList;
 
 
 /**
- * Console (CLI) entry point for DaBot using a small handler-style command router.
- * Mirrors MainApp’s design: a single handle(input) produces a reply string.
+ * Console (CLI) entry point for DaBot.
+ * Commands run through the same {@link CommandEngine} as the GUI, so a single handle(input) produces a reply string;
+ * the REPL streams replies straight to the console instead.
  */
 public class DaBot {
-    private final Storage storage;
     private final Ui ui;
-    private TaskList tasks;
+    private final CommandEngine engine;
 
     /**
      * Constructs a new {@code DaBot} instance with persistent storage.
@@ -28,25 +31,36 @@ public class DaBot {
      */
     public DaBot(String filePath) {
         this.ui = new Ui();
-        this.storage = new Storage(filePath);
+        Storage storage = Storage.fromSystemProperties(filePath);
+        Metrics metrics = Metrics.fromSystemProperties();
+        storage.setMetrics(metrics);
+        TaskList tasks;
         try {
-            this.tasks = new TaskList(storage.load());
+            tasks = TaskList.wrap(storage.load());
         } catch (DabotException e) {
             // Start empty if load fails; surface message in first loop iteration
-            this.tasks = new TaskList();
+            tasks = new TaskList();
         }
+        storage.attach(tasks);
+        this.engine = new CommandEngine(storage, tasks, metrics);
     }
 
     /** Main REPL loop for the CLI. */
     public void run() {
         ui.showWelcome();
+        PrintWriter out = new PrintWriter(System.out);
         while (true) {
             String input = ui.readLine();
-            String reply = handle(input);
-            // Print the chatbot reply
-            System.out.println(reply);
+            // Stream the chatbot reply straight to the console
+            try {
+                handle(input, out);
+            } catch (IOException e) {
+                throw new AssertionError("PrintWriter does not throw", e);
+            }
+            out.println();
+            out.flush();
 
-            if ("bye".equalsIgnoreCase((input == null ? "" : input.trim()).split("\\s+", 2)[0])) {
+            if (engine.isExitRequested()) {
                 break;
             }
         }
@@ -57,133 +71,69 @@ public class DaBot {
      * No side-effects beyond mutating tasks + saving when relevant.
      */
     public String handle(String input) {
-        String trimmed = input == null ? "" : input.trim();
-        if (trimmed.isEmpty()) {
-            return "Please enter a command.";
-        }
-        String cmd = trimmed.split("\\s+", 2)[0];
-
-        try {
-            switch (cmd) {
-            case "bye":
-                return handleBye();
-            case "list":
-                return handleList();
-            case "on":
-                return handleOn(trimmed);
-            case "mark":
-                return handleMark(trimmed);
-            case "unmark":
-                return handleUnmark(trimmed);
-            case "delete":
-                return handleDelete(trimmed);
-            case "find":
-                return handleFind(trimmed);
-            case "remind":
-                return handleRemind(trimmed);
-            default:
-                return handleAdd(trimmed);
-            }
-        } catch (DabotException e) {
-            return e.getMessage();
-        }
-    }
-
-    private String handleBye() throws DabotException {
-        save();
-        return "Bye. Hope to see you again soon!";
-    }
-
-    private String handleList() {
-        if (tasks.size() == 0) {
-            return "Your list is empty.";
-        }
-        return "Here are the tasks in your list:\n" + renderTaskList();
+        return engine.handle(input);
     }
 
-    private String handleOn(String input) throws DabotException {
-        LocalDate date = Parser.parseOnDate(input);
-        var dayTasks = tasks.tasksOn(date);
-        if (dayTasks.isEmpty()) {
-            return "No tasks on " + date + ".";
-        }
-        StringBuilder sb = new StringBuilder("Here are the tasks on ").append(date).append(":\n");
-        for (Task t : dayTasks) {
-            sb.append(t).append('\n');
-        }
-        return sb.toString().trim();
-    }
-
-    private String handleMark(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        tasks.mark(idx1 - 1);
-        save();
-        return "Nice! I've marked this task as done:\n" + tasks.get(idx1 - 1);
-    }
-
-    private String handleUnmark(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        tasks.unmark(idx1 - 1);
-        save();
-        return "OK, I've marked this task as not done yet:\n" + tasks.get(idx1 - 1);
+    /**
+     * Parses a single user input and writes DaBot’s reply to {@code out} as it is rendered.
+     *
+     * @param input the user input line
+     * @param out   where to write the reply, without a final line break
+     * @throws IOException if writing to {@code out} fails
+     */
+    public void handle(String input, Appendable out) throws IOException {
+        engine.handle(input, out);
     }
 
-    private String handleDelete(String input) throws DabotException {
-        int idx1 = Parser.parseIndex1(input);
-        Task removed = tasks.delete(idx1 - 1);
-        save();
-        return "Noted. I've removed this task:\n" + removed
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+    /**
+     * Returns whether the user has said bye.
+     *
+     * @return {@code true} once a {@code bye} command has been handled
+     */
+    boolean isExitRequested() {
+        return engine.isExitRequested();
     }
 
-    private String handleFind(String input) throws DabotException {
-        String keyword = Parser.parseFindKeyword(input);
-        var found = tasks.find(keyword);
-        if (found.isEmpty()) {
-            return "No matching tasks for: " + keyword;
-        }
-        StringBuilder sb = new StringBuilder("Here are the matching tasks:\n");
-        for (int i = 0; i < found.size(); i++) {
-            sb.append(i + 1).append(". ").append(found.get(i)).append('\n');
-        }
-        return sb.toString().trim();
+    /**
+     * Makes commands only record that the list changed instead of saving it.
+     *
+     * @param isDeferred whether to defer saves
+     * @see CommandEngine#setSaveDeferred(boolean)
+     */
+    void setSaveDeferred(boolean isDeferred) {
+        engine.setSaveDeferred(isDeferred);
     }
 
-    private String handleAdd(String input) throws DabotException {
-        Task task = Parser.parseTask(input);
-        tasks.add(task);
-        save();
-        return "Got it. I've added this task:\n\t" + task
-                + "\nNow you have " + tasks.size() + " tasks in the list.";
+    /**
+     * Saves the list if a deferred command changed it since the last flush, and waits until it is on disk.
+     *
+     * @throws DabotException if the list cannot be saved
+     */
+    void flush() throws DabotException {
+        engine.flush();
     }
 
-    private String handleRemind(String input) throws DabotException {
-        int days = Parser.parseRemindDays(input); // e.g. "remind 7"
-        var upcoming = tasks.remindersWithinDays(days);
-        if (upcoming.isEmpty()) {
-            return "No upcoming tasks in the next " + days + " days.";
-        }
-        StringBuilder sb = new StringBuilder("Here are the upcoming tasks in the next ")
-                .append(days).append(" days:\n");
-        for (int i = 0; i < upcoming.size(); i++) {
-            sb.append(i + 1).append(". ").append(upcoming.get(i)).append('\n');
+    /**
+     * Starts the CLI.
+     * <p>
+     * With {@code --batch FILE} the commands in {@code FILE} are run instead of
+     * reading the console; see {@link BatchRunner#main(DaBot, String[])}.
+     * With {@code --serve} the remaining arguments are passed to
+     * {@link DaBotServer#main(String[])} and DaBot serves many users instead.
+     * </p>
+     *
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            DaBotServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
         }
-        return sb.toString().trim();
-    }
-
-    private void save() throws DabotException {
-        storage.save(tasks.asList());
-    }
-
-    private String renderTaskList() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(i + 1).append(". ").append(tasks.get(i)).append('\n');
+        DaBot bot = new DaBot("data/dabot.txt");
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(bot, args);
+            return;
         }
-        return sb.toString().trim();
-    }
-
-    public static void main(String[] args) {
-        new DaBot("data/dabot.txt").run();
+        bot.run();
     }
 }
@@ -0,0 +1,194 @@
+package dabot.main;
+
+import java.util.Arrays;
+
+/**
+ * A command line split into whitespace-separated, typed tokens in a single pass.
+ * <p>
+ * Tokens are kept as offsets into the line, so nothing is copied until a
+ * parser asks for a token's text. A token that is all ASCII digits is a
+ * {@link Type#NUMBER}; one that starts with {@code /} is a {@link Type#FLAG}
+ * such as {@code /by}, and marks the start of a slot that runs to the next
+ * flag the parser looks for. A flag may follow a word without a space, so
+ * {@code book/by} is the word {@code book} and the flag {@code /by}.
+ * </p>
+ */
+final class Lexer {
+
+    /** The kind of a token. */
+    enum Type {
+        WORD, NUMBER, FLAG
+    }
+
+    private final String line;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private Type[] types = new Type[8];
+    private int count;
+
+    private Lexer(String line) {
+        this.line = line;
+    }
+
+    /**
+     * Splits {@code line} into tokens.
+     *
+     * @param line the command line
+     * @return the tokens of the line
+     */
+    static Lexer lex(String line) {
+        Lexer lexer = new Lexer(line);
+        int n = line.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i == n) {
+                break;
+            }
+            int start = i;
+            boolean isNumber = true;
+            while (i < n && !Character.isWhitespace(line.charAt(i))) {
+                char c = line.charAt(i);
+                if (c == '/' && i > start && i + 1 < n && Character.isLetter(line.charAt(i + 1))) {
+                    break; // a flag glued to the word before it, as in "book/by"
+                }
+                isNumber &= c >= '0' && c <= '9';
+                i++;
+            }
+            Type type = line.charAt(start) == '/' && i - start > 1 ? Type.FLAG
+                    : isNumber ? Type.NUMBER : Type.WORD;
+            lexer.add(start, i, type);
+        }
+        return lexer;
+    }
+
+    private void add(int start, int end, Type type) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            types = Arrays.copyOf(types, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        types[count] = type;
+        count++;
+    }
+
+    /**
+     * Returns the line that was split.
+     *
+     * @return the original line
+     */
+    String line() {
+        return line;
+    }
+
+    /**
+     * Returns the number of tokens.
+     *
+     * @return token count
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Returns the kind of token {@code i}.
+     *
+     * @param i token position
+     * @return the token type
+     */
+    Type type(int i) {
+        return types[i];
+    }
+
+    /**
+     * Returns the offset of token {@code i} in the line.
+     *
+     * @param i token position
+     * @return start offset
+     */
+    int start(int i) {
+        return starts[i];
+    }
+
+    /**
+     * Returns the offset just past token {@code i} in the line.
+     *
+     * @param i token position
+     * @return end offset, exclusive
+     */
+    int end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * Returns the text of token {@code i}.
+     *
+     * @param i token position
+     * @return the token text
+     */
+    String text(int i) {
+        return line.substring(starts[i], ends[i]);
+    }
+
+    /**
+     * Returns whether token {@code i} is exactly {@code word}.
+     *
+     * @param i    token position
+     * @param word text to compare with
+     * @return {@code true} if the token equals {@code word}
+     */
+    boolean is(int i, String word) {
+        return ends[i] - starts[i] == word.length() && line.startsWith(word, starts[i]);
+    }
+
+    /**
+     * Returns the value of a {@link Type#NUMBER} token.
+     *
+     * @param i token position
+     * @return the value, or {@code -1} if the token is not a number or does not fit in an {@code int}
+     */
+    int intValue(int i) {
+        if (types[i] != Type.NUMBER) {
+            return -1;
+        }
+        long value = 0;
+        for (int p = starts[i]; p < ends[i]; p++) {
+            value = value * 10 + (line.charAt(p) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Finds the first flag token {@code flag} at or after token {@code from}.
+     *
+     * @param flag flag text including the slash, e.g. {@code /by}
+     * @param from first token position to look at
+     * @return the flag's position, or {@code -1} if there is none
+     */
+    int findFlag(String flag, int from) {
+        for (int i = from; i < count; i++) {
+            if (types[i] == Type.FLAG && is(i, flag)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the text spanning tokens {@code [from, to)}, with the whitespace between them as typed.
+     *
+     * @param from first token position
+     * @param to   position just past the last token
+     * @return the text, or an empty string if the range holds no tokens
+     */
+    String span(int from, int to) {
+        return from >= to ? "" : line.substring(starts[from], ends[to - 1]);
+    }
+}
@@ -0,0 +1,77 @@
+package dabot.main;
+
+/**
+ * The part of a result list that a reply shows.
+ * <p>
+ * Either everything, a numbered page of a fixed size ({@code /page 3 /size 50}),
+ * or a window of one-based positions ({@code list 100-200}).
+ * </p>
+ */
+final class Page {
+    /** Page size used when {@code /page} is given without {@code /size}. */
+    static final int DEFAULT_SIZE = 50;
+
+    /** Shows every result. */
+    static final Page ALL = new Page(0, Integer.MAX_VALUE);
+
+    private final int offset;
+    private final int limit;
+
+    private Page(int offset, int limit) {
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns page {@code number} of pages holding {@code size} results each.
+     *
+     * @param number one-based page number
+     * @param size   results per page
+     * @return the page
+     */
+    static Page numbered(int number, int size) {
+        assert number > 0 && size > 0 : "Page number and size must be positive";
+        return new Page((int) Math.min((long) (number - 1) * size, Integer.MAX_VALUE), size);
+    }
+
+    /**
+     * Returns the results at one-based positions {@code first} to {@code last}, inclusive.
+     *
+     * @param first first position to show
+     * @param last  last position to show; not before {@code first}
+     * @return the window
+     */
+    static Page window(int first, int last) {
+        assert 0 < first && first <= last : "Window must be a non-empty range of positions";
+        return new Page(first - 1, last - first + 1);
+    }
+
+    /**
+     * Returns whether this page shows every result.
+     *
+     * @return {@code true} for {@link #ALL}
+     */
+    boolean isAll() {
+        return this == ALL;
+    }
+
+    /**
+     * Returns the zero-based index of the first result shown out of {@code total}.
+     *
+     * @param total number of results
+     * @return first index, at most {@code total}
+     */
+    int from(int total) {
+        return Math.min(offset, total);
+    }
+
+    /**
+     * Returns the zero-based index just past the last result shown out of {@code total}.
+     *
+     * @param total number of results
+     * @return end index, exclusive, at most {@code total}
+     */
+    int to(int total) {
+        return (int) Math.min((long) offset + limit, total);
+    }
+}
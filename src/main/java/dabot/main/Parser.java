@@ -1,11 +1,13 @@
 package dabot.main;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.util.BitSet;
 
 import dabot.task.Deadline;
 import dabot.task.Event;
+import dabot.task.IsoDates;
 import dabot.task.Task;
+import dabot.task.TaskList;
 import dabot.task.Todo;
 
 
@@ -15,6 +17,8 @@ import dabot.task.Todo;
  * <p>
  * Provides methods to interpret text commands such as creating a {@link Todo},
  * {@link Deadline}, or {@link Event}, extracting task indices, and parsing dates.
+ * Input is split once by a {@link Lexer}; each public method has a package-private
+ * overload that takes the already lexed line, which {@link CommandEngine} uses.
  * </p>
  */
 public class Parser {
@@ -35,49 +39,36 @@ public class Parser {
      * @throws DabotException if the command is unrecognized or required parts are missing
      */
     public static Task parseTask(String input) throws DabotException {
-        String[] words = input.split(" ", 2);
-        String taskType = words[0];
-        String args = (words.length > 1) ? words[1].trim() : "";
+        return parseTask(Lexer.lex(input));
+    }
 
-        switch (taskType) { // Switch between different task types
-        case "todo": {
-            if (args.isEmpty()) {
+    static Task parseTask(Lexer line) throws DabotException {
+        int n = line.count();
+        if (n > 0 && line.is(0, "todo")) {
+            if (n < 2) {
                 throw new DabotException("Error! Usage: todo DESCRIPTION");
             }
-            return new Todo(args);
+            return new Todo(line.span(1, n));
         }
 
-        case "deadline": {
-            if (args.isEmpty()) {
-                throw new DabotException("Error! Usage: deadline DESCRIPTION /by DATE");
-            }
-            String[] parts = args.split("/by", 2); // limit=2 prevents over-splitting
-            if (parts.length < 2 || parts[0].isBlank() || parts[1].isBlank()) {
+        if (n > 0 && line.is(0, "deadline")) {
+            int by = line.findFlag("/by", 1);
+            if (by <= 1 || by == n - 1) {
                 throw new DabotException("Error! Usage: deadline DESCRIPTION /by DATE");
             }
-            return new Deadline(parts[0].trim(), parts[1].trim());
+            return new Deadline(line.span(1, by), line.span(by + 1, n));
         }
 
-        case "event": {
-            if (args.isEmpty()) {
+        if (n > 0 && line.is(0, "event")) {
+            int from = line.findFlag("/from", 1);
+            int to = from < 0 ? -1 : line.findFlag("/to", from + 1);
+            if (from <= 1 || to < 0 || to == from + 1 || to == n - 1) {
                 throw new DabotException("Error! Usage: event DESCRIPTION /from START /to END");
             }
-            String[] descFrom = args.split("/from", 2);
-            if (descFrom.length < 2 || descFrom[0].isBlank()) {
-                throw new DabotException("Error! Usage: event DESCRIPTION /from START /to END");
-            }
-            String description = descFrom[0].trim();
-
-            String[] fromTo = descFrom[1].split("/to", 2);
-            if (fromTo.length < 2 || fromTo[0].isBlank() || fromTo[1].isBlank()) {
-                throw new DabotException("Error! Usage: event DESCRIPTION /from START /to END");
-            }
-            return new Event(description, fromTo[0].trim(), fromTo[1].trim());
+            return new Event(line.span(1, from), line.span(from + 1, to), line.span(to + 1, n));
         }
 
-        default:
-            throw new DabotException("Grrrr, I am sorry, I don't know what that means...");
-        }
+        throw new DabotException("Grrrr, I am sorry, I don't know what that means...");
     }
 
     /**
@@ -91,19 +82,111 @@ public class Parser {
      * @throws DabotException if the index is missing or not a positive integer
      */
     public static int parseIndex1(String input) throws DabotException {
-        String[] words = input.trim().split("\\s+");
-        if (words.length < 2) {
+        Lexer line = Lexer.lex(input);
+        if (line.count() < 2) {
+            throw new DabotException("Please specify a task number.");
+        }
+        int idx1 = line.intValue(1);
+        if (idx1 <= 0) {
+            throw new DabotException("Task number must be a positive integer.");
+        }
+        return idx1;
+    }
+
+    /**
+     * Parses a command string that selects one or more tasks.
+     * <p>
+     * Used for commands like {@code delete 3}, {@code delete 3-90},
+     * {@code mark 1,4,7-12} or {@code delete done}. Numbers are one-based and
+     * ranges are inclusive; {@code done} selects every task that is marked done.
+     * A single number is read like {@link #parseIndex1}: words after it are
+     * ignored and the error messages are the same.
+     * </p>
+     *
+     * @param input the full command string
+     * @param tasks the list the numbers refer to
+     * @return the selected zero-based indices, ascending and without duplicates
+     * @throws DabotException if the selection is missing, malformed or out of range
+     */
+    public static int[] parseIndexSelection(String input, TaskList tasks) throws DabotException {
+        return parseIndexSelection(Lexer.lex(input), tasks);
+    }
+
+    static int[] parseIndexSelection(Lexer line, TaskList tasks) throws DabotException {
+        int n = line.count();
+        if (n < 2) {
             throw new DabotException("Please specify a task number.");
         }
-        try {
-            int idx1 = Integer.parseInt(words[1]);
+        if (n == 2 && line.is(1, "done")) {
+            return tasks.doneIndices();
+        }
+        if (isSingleIndex(line)) {
+            int idx1 = line.intValue(1);
             if (idx1 <= 0) {
-                throw new NumberFormatException();
+                throw new DabotException("Task number must be a positive integer.");
             }
-            return idx1;
-        } catch (NumberFormatException e) {
-            throw new DabotException("Task number must be a positive integer.");
+            if (idx1 > tasks.size()) {
+                throw new DabotException("Task number " + idx1 + " is out of range.");
+            }
+            return new int[] {idx1 - 1};
         }
+        String selection = line.span(1, n);
+        BitSet selected = new BitSet();
+        int partStart = 0;
+        while (partStart <= selection.length()) {
+            int comma = selection.indexOf(',', partStart);
+            int partEnd = comma < 0 ? selection.length() : comma;
+            int dash = selection.indexOf('-', partStart + 1);
+            boolean isRange = dash >= 0 && dash < partEnd;
+            int first = parsePositive(selection, partStart, isRange ? dash : partEnd);
+            int last = isRange ? parsePositive(selection, dash + 1, partEnd) : first;
+            if (last < first) {
+                throw new DabotException("Range " + selection.substring(partStart, partEnd).trim()
+                        + " ends before it starts.");
+            }
+            if (last > tasks.size()) {
+                throw new DabotException("Task number " + last + " is out of range.");
+            }
+            selected.set(first - 1, last);
+            partStart = partEnd + 1;
+        }
+        return selected.stream().toArray();
+    }
+
+    /** Returns whether the selection is one number, not a list or range spread over several tokens. */
+    private static boolean isSingleIndex(Lexer line) {
+        String first = line.text(1);
+        if (first.indexOf(',') >= 0 || first.indexOf('-', 1) >= 0) {
+            return false;
+        }
+        if (line.count() == 2) {
+            return true;
+        }
+        char next = line.text(2).charAt(0);
+        return next != ',' && next != '-';
+    }
+
+    /** Parses the positive number in {@code text[from, to)}, ignoring surrounding whitespace. */
+    private static int parsePositive(String text, int from, int to) throws DabotException {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        long value = 0;
+        for (int i = from; i < to && value <= Integer.MAX_VALUE; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                value = -1;
+                break;
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (value <= 0 || value > Integer.MAX_VALUE) {
+            throw new DabotException("Task numbers must be positive integers, ranges like 3-9, or 'done'.");
+        }
+        return (int) value;
     }
 
     /**
@@ -117,21 +200,55 @@ public class Parser {
      * @throws DabotException if the date is missing or not in {@code yyyy-MM-dd} format
      */
     public static LocalDate parseOnDate(String input) throws DabotException {
-        String[] words = input.trim().split("\\s+");
-        if (words.length < 2) {
+        Lexer line = Lexer.lex(input);
+        if (line.count() < 2) {
             throw new DabotException("Date (yyyy-MM-dd) cannot be empty.");
         }
-        try {
-            return LocalDate.parse(words[1]);
-        } catch (DateTimeParseException e) {
+        LocalDate date = IsoDates.parseOrNull(line.text(1));
+        if (date == null) {
             throw new DabotException("Please type your date in format yyyy-MM-dd.");
         }
+        return date;
+    }
+
+    /**
+     * Parses an {@code on} command that gives either one date or a {@code FROM TO} range.
+     * <p>
+     * Used for commands like {@code on yyyy-MM-dd} and {@code on yyyy-MM-dd yyyy-MM-dd}.
+     * </p>
+     *
+     * @param input the full command string
+     * @return a two-element array of the first and last day; both are the same for a single date
+     * @throws DabotException if a date is missing or malformed, or the range ends before it starts
+     */
+    public static LocalDate[] parseOnRange(String input) throws DabotException {
+        return parseOnRange(Lexer.lex(input));
+    }
+
+    static LocalDate[] parseOnRange(Lexer line) throws DabotException {
+        int n = line.count();
+        if (n < 2) {
+            throw new DabotException("Date (yyyy-MM-dd) cannot be empty.");
+        }
+        if (n > 3) {
+            throw new DabotException("Please give one date, or a start and end date, e.g., 'on 2025-09-01 2025-09-07'.");
+        }
+        LocalDate from = IsoDates.parseOrNull(line.text(1));
+        LocalDate to = n == 3 ? IsoDates.parseOrNull(line.text(2)) : from;
+        if (from == null || to == null) {
+            throw new DabotException("Please type your date in format yyyy-MM-dd.");
+        }
+        if (to.isBefore(from)) {
+            throw new DabotException("The end date cannot be before the start date.");
+        }
+        return new LocalDate[] {from, to};
     }
 
     /**
      * Extracts the search keyword from a {@code find} command.
      * <p>
-     * The expected format is {@code find KEYWORD}. If no keyword is provided,
+     * The expected format is {@code find KEYWORD}, optionally followed by
+     * {@code /page} and {@code /size}. If no keyword is provided,
      * a {@link DabotException} is thrown.
      *
      * @param input the full user input string starting with {@code find}
@@ -139,30 +256,102 @@ public class Parser {
      * @throws DabotException if the keyword is missing or empty
      */
     public static String parseFindKeyword(String input) throws DabotException {
-        String[] words = input.trim().split("\\s+", 2);
-        if (words.length < 2 || words[1].isEmpty()) {
+        return parseFindKeyword(Lexer.lex(input));
+    }
+
+    static String parseFindKeyword(Lexer line) throws DabotException {
+        int end = pageFlagAt(line, 1);
+        if (end < 2) {
             throw new DabotException("Find keyword cannot be empty.");
         }
-        return words[1];
+        return line.span(1, end);
     }
 
     /**
      * Parse an optional integer number of days after the keyword (default 3).
      */
     public static int parseRemindDays(String input) throws DabotException {
-        String[] words = input.trim().split("\\s+");
-        if (words.length == 1) {
+        return parseRemindDays(Lexer.lex(input));
+    }
+
+    static int parseRemindDays(Lexer line) throws DabotException {
+        if (pageFlagAt(line, 1) < 2) {
             return 3; // default days
         }
-        try {
-            int d = Integer.parseInt(words[1]);
-            if (d <= 0) {
-                throw new NumberFormatException();
-            }
-            return d;
-        } catch (NumberFormatException e) {
+        int d = line.intValue(1);
+        if (d <= 0) {
             throw new DabotException("Please provide a positive number of days, e.g., 'remind 7'.");
         }
+        return d;
     }
 
+    /**
+     * Parses which part of the task list a {@code list} command shows.
+     * <p>
+     * Accepts {@code list}, a window {@code list 100-200} or {@code list 7},
+     * and {@code list /page 3 /size 50}.
+     * </p>
+     *
+     * @param line the lexed {@code list} command
+     * @return the part to show
+     * @throws DabotException if the window or page is malformed
+     */
+    static Page parseListPage(Lexer line) throws DabotException {
+        int n = line.count();
+        if (n < 2 || line.type(1) == Lexer.Type.FLAG) {
+            return parsePage(line, 1);
+        }
+        if (n > 2) {
+            throw new DabotException("Please give one range of task numbers, e.g., 'list 100-200'.");
+        }
+        String window = line.text(1);
+        int dash = window.indexOf('-', 1);
+        int first = parsePositive(window, 0, dash < 0 ? window.length() : dash);
+        int last = dash < 0 ? first : parsePositive(window, dash + 1, window.length());
+        if (last < first) {
+            throw new DabotException("Range " + window + " ends before it starts.");
+        }
+        return Page.window(first, last);
+    }
+
+    /**
+     * Parses the optional {@code /page N} and {@code /size N} flags at or after token {@code from}.
+     *
+     * @param line the lexed command
+     * @param from first token position to look at
+     * @return the requested page, or {@link Page#ALL} if neither flag is given
+     * @throws DabotException if a flag is not followed by a positive number
+     */
+    static Page parsePage(Lexer line, int from) throws DabotException {
+        int page = line.findFlag("/page", from);
+        int size = line.findFlag("/size", from);
+        if (page < 0 && size < 0) {
+            return Page.ALL;
+        }
+        int number = page < 0 ? 1 : flagValue(line, page);
+        int count = size < 0 ? Page.DEFAULT_SIZE : flagValue(line, size);
+        if (number <= 0 || count <= 0) {
+            throw new DabotException("Page numbers and sizes must be positive integers, e.g., '/page 2 /size 20'.");
+        }
+        return Page.numbered(number, count);
+    }
+
+    /** Returns the number after the flag at {@code flag}, or -1 if there is none. */
+    private static int flagValue(Lexer line, int flag) {
+        return flag + 1 < line.count() ? line.intValue(flag + 1) : -1;
+    }
+
+    /** Returns the position of the first {@code /page} or {@code /size} flag at or after {@code from}, or the token count. */
+    private static int pageFlagAt(Lexer line, int from) {
+        int page = line.findFlag("/page", from);
+        int size = line.findFlag("/size", from);
+        int end = line.count();
+        if (page >= 0) {
+            end = page;
+        }
+        if (size >= 0 && size < end) {
+            end = size;
+        }
+        return end;
+    }
 }
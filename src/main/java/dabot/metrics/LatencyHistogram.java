@@ -0,0 +1,118 @@
+package dabot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of durations in nanoseconds.
+ * <p>
+ * Buckets are powers of two split into four linear steps, so any percentile
+ * is reported within 25% of the true value while recording costs a few
+ * uncontended atomic increments and no allocation.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos duration in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long n = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(n));
+        count.incrementAndGet();
+        sum.addAndGet(n);
+        long m;
+        while (n > (m = max.get()) && !max.compareAndSet(m, n)) {
+            // retry until this value or a larger one is stored
+        }
+    }
+
+    private static int bucketOf(long n) {
+        if (n < SUB_BUCKETS) {
+            return (int) n;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(n);
+        int sub = (int) (n >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Returns the largest value that falls into {@code bucket}. */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (1L << exponent) + (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * Returns how many durations were recorded.
+     *
+     * @return number of recorded durations
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded durations.
+     *
+     * @return total in nanoseconds
+     */
+    public long getSumNanos() {
+        return sum.get();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return maximum in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of all recorded durations.
+     *
+     * @return mean in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getMeanNanos() {
+        long c = count.get();
+        return c == 0 ? 0 : sum.get() / c;
+    }
+
+    /**
+     * Returns an upper estimate of the given percentile.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return the percentile in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,262 @@
+package dabot.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency histograms for commands and storage.
+ * <p>
+ * Every command is timed as a whole and split into the phases of
+ * {@link Phase}: a {@link Trace} is started when the command arrives, the
+ * handler calls {@link Trace#lap(Phase)} as it finishes each phase, and
+ * whatever time is left when the reply is complete counts as rendering.
+ * Storage reports the bytes it writes and how long each fsync takes.
+ * Recording only reads the clock and bumps atomic counters, so it is cheap
+ * enough to leave on.
+ * </p>
+ */
+public class Metrics {
+    /** Commands beyond this many distinct names are counted under {@code other}. */
+    private static final int MAX_COMMANDS = 64;
+
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final LatencyHistogram fsyncs = new LatencyHistogram();
+    private final long startNanos = System.nanoTime();
+    private ScheduledExecutorService dumper;
+
+    /** The parts a command's latency is split into. */
+    public enum Phase {
+        PARSE, EXECUTE, SAVE, RENDER
+    }
+
+    /** Count and latencies of one command name. */
+    private static final class CommandStats {
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+
+        CommandStats() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /** Timing of one command in progress; used by a single thread. */
+    public static final class Trace {
+        private final CommandStats stats;
+        private final long start;
+        private long lapStart;
+
+        private Trace(CommandStats stats) {
+            this.stats = stats;
+            this.start = System.nanoTime();
+            this.lapStart = start;
+        }
+
+        /**
+         * Ends a phase: the time since the previous lap (or the start) is recorded for {@code phase}.
+         *
+         * @param phase the phase that just finished
+         */
+        public void lap(Phase phase) {
+            long now = System.nanoTime();
+            stats.phases[phase.ordinal()].record(now - lapStart);
+            lapStart = now;
+        }
+
+        /** Ends the command: the remaining time counts as {@link Phase#RENDER}. */
+        public void end() {
+            lap(Phase.RENDER);
+            stats.total.record(lapStart - start);
+        }
+    }
+
+    /**
+     * Creates a {@code Metrics} configured from JVM system properties.
+     * <ul>
+     *   <li>{@code dabot.statsFile} - file to write the metrics to as JSON, periodically</li>
+     *   <li>{@code dabot.statsPeriodMs} - how often to write that file (default 60000)</li>
+     * </ul>
+     *
+     * @return the configured metrics
+     */
+    public static Metrics fromSystemProperties() {
+        Metrics metrics = new Metrics();
+        String file = System.getProperty("dabot.statsFile");
+        if (file != null) {
+            metrics.startDumping(Paths.get(file), Long.getLong("dabot.statsPeriodMs", 60_000L));
+        }
+        return metrics;
+    }
+
+    /**
+     * Starts timing a command.
+     *
+     * @param command the command word, e.g. {@code find}
+     * @return the trace to lap and end
+     */
+    public Trace begin(String command) {
+        CommandStats stats = commands.get(command);
+        if (stats == null) {
+            String key = commands.size() < MAX_COMMANDS ? command : "other";
+            stats = commands.computeIfAbsent(key, k -> new CommandStats());
+        }
+        return new Trace(stats);
+    }
+
+    /**
+     * Records bytes written to the task files.
+     *
+     * @param bytes number of bytes
+     */
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * Records the duration of one fsync.
+     *
+     * @param nanos how long the sync took
+     */
+    public void recordFsync(long nanos) {
+        fsyncs.record(nanos);
+    }
+
+    /**
+     * Writes {@link #toJson()} to {@code file} every {@code periodMillis}, on a background thread.
+     * Each dump replaces the file atomically, so readers never see a partial one.
+     *
+     * @param file         file to write
+     * @param periodMillis time between dumps
+     */
+    public synchronized void startDumping(Path file, long periodMillis) {
+        if (dumper != null) {
+            dumper.shutdownNow();
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dabot-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes {@link #toJson()} to {@code file} now.
+     *
+     * @param file file to write
+     */
+    public void dump(Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, toJson().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to write stats: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a human-readable summary, as shown by the {@code stats} command.
+     *
+     * @return one line per command, then one line for storage
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder("Command stats (count, p50 / p99 / max; phases at p50):\n");
+        for (Map.Entry<String, CommandStats> e : sorted().entrySet()) {
+            CommandStats s = e.getValue();
+            sb.append(String.format("%-8s %6d  %s / %s / %s  [", e.getKey(), s.total.getCount(),
+                    millis(s.total.getPercentileNanos(50)), millis(s.total.getPercentileNanos(99)),
+                    millis(s.total.getMaxNanos())));
+            for (Phase p : Phase.values()) {
+                if (p.ordinal() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(p.name().toLowerCase()).append(' ')
+                        .append(millis(s.phases[p.ordinal()].getPercentileNanos(50)));
+            }
+            sb.append("]\n");
+        }
+        sb.append(String.format("Storage: %d bytes written, %d fsyncs (p50 %s, p99 %s, max %s)",
+                bytesWritten.get(), fsyncs.getCount(), millis(fsyncs.getPercentileNanos(50)),
+                millis(fsyncs.getPercentileNanos(99)), millis(fsyncs.getMaxNanos())));
+        return sb.toString();
+    }
+
+    /**
+     * Returns all metrics as a JSON object, with durations in nanoseconds.
+     *
+     * @return JSON text
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"uptimeNanos\":").append(System.nanoTime() - startNanos)
+                .append(",\"commands\":{");
+        boolean isFirst = true;
+        for (Map.Entry<String, CommandStats> e : sorted().entrySet()) {
+            if (!isFirst) {
+                sb.append(',');
+            }
+            isFirst = false;
+            sb.append('"').append(escape(e.getKey())).append("\":{\"total\":");
+            appendJson(sb, e.getValue().total);
+            for (Phase p : Phase.values()) {
+                sb.append(",\"").append(p.name().toLowerCase()).append("\":");
+                appendJson(sb, e.getValue().phases[p.ordinal()]);
+            }
+            sb.append('}');
+        }
+        sb.append("},\"storage\":{\"bytesWritten\":").append(bytesWritten.get()).append(",\"fsync\":");
+        appendJson(sb, fsyncs);
+        return sb.append("}}").toString();
+    }
+
+    private Map<String, CommandStats> sorted() {
+        return new TreeMap<>(commands);
+    }
+
+    private static void appendJson(StringBuilder sb, LatencyHistogram h) {
+        sb.append("{\"count\":").append(h.getCount())
+                .append(",\"sum\":").append(h.getSumNanos())
+                .append(",\"p50\":").append(h.getPercentileNanos(50))
+                .append(",\"p90\":").append(h.getPercentileNanos(90))
+                .append(",\"p99\":").append(h.getPercentileNanos(99))
+                .append(",\"max\":").append(h.getMaxNanos())
+                .append('}');
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+}
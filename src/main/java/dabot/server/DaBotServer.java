@@ -0,0 +1,272 @@
+package dabot.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dabot.main.DabotException;
+import dabot.metrics.Metrics;
+
+/**
+ * Serves DaBot to many users of one host over a local socket.
+ * <p>
+ * A client connects to the loopback address and first sends
+ * {@code user NAME}. Every following line is a command for that user's
+ * {@link Shard}, stored in {@code NAME.txt} in the data directory. Each
+ * reply is framed as a line holding its number of lines, followed by those
+ * lines, since replies can span several lines. The session ends after
+ * {@code bye} or when the client disconnects.
+ * </p>
+ * <p>
+ * Each connection is served by its own thread from a cached pool. Commands
+ * that change a user's list are serialized by the shard, while commands that
+ * only read it run at once on every connection of that user.
+ * </p>
+ */
+public class DaBotServer implements Closeable {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 4545;
+
+    private static final int MAX_USER_NAME_LENGTH = 32;
+
+    private final Path dataDir;
+    private final Metrics metrics;
+    private final ServerSocket serverSocket;
+    private final Map<String, CompletableFuture<Shard>> shards = new ConcurrentHashMap<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private volatile boolean isClosed;
+
+    /**
+     * Binds a server to {@code port} on the loopback address.
+     *
+     * @param dataDir directory holding one task file per user
+     * @param port    port to listen on, or {@code 0} for any free port
+     * @param metrics metrics shared by all users; {@code stats} reports them
+     * @throws IOException if the port cannot be bound
+     */
+    public DaBotServer(Path dataDir, int port, Metrics metrics) throws IOException {
+        this.dataDir = dataDir;
+        this.metrics = metrics;
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        AtomicInteger clientCount = new AtomicInteger();
+        this.connections = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "dabot-client-" + clientCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.acceptor = new Thread(this::acceptLoop, "dabot-acceptor");
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Starts accepting connections on a background thread. */
+    public void start() {
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!isClosed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!isClosed) {
+                    System.out.println("Failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String user = parseUser(in.readLine());
+            if (user == null) {
+                send(out, "Please start with 'user NAME', where NAME is up to " + MAX_USER_NAME_LENGTH
+                        + " letters, digits, '-' or '_'.");
+                return;
+            }
+            Shard shard = shard(user);
+            send(out, "Hello " + user + "! What can I do for you?");
+            String line;
+            while ((line = in.readLine()) != null) {
+                send(out, shard.handle(line));
+                if (isBye(line)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // the client went away; its commands have already been saved
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    /**
+     * Returns the shard of {@code user}, loading it on first use.
+     * <p>
+     * The load runs outside the map, so it holds up only the connections of
+     * the same user, which wait for it to finish; other users are not blocked
+     * even if their names share a bin of the map.
+     * </p>
+     */
+    private Shard shard(String user) {
+        CompletableFuture<Shard> opening = new CompletableFuture<>();
+        CompletableFuture<Shard> shard = shards.putIfAbsent(user, opening);
+        if (shard == null) {
+            shard = opening;
+            try {
+                opening.complete(Shard.open(dataDir.resolve(user + ".txt"), metrics));
+            } catch (RuntimeException | Error e) {
+                shards.remove(user, opening); // let the next connection try again
+                opening.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return shard.join();
+    }
+
+    /** Writes {@code reply} as a line count followed by its lines. */
+    private static void send(Writer out, String reply) throws IOException {
+        int lines = 1;
+        for (int i = 0; i < reply.length(); i++) {
+            if (reply.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        out.write(Integer.toString(lines));
+        out.write('\n');
+        out.write(reply);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Returns the user name of a {@code user NAME} line.
+     *
+     * @param line first line sent by the client
+     * @return the name, or {@code null} if the line is not a valid greeting
+     */
+    static String parseUser(String line) {
+        if (line == null || !line.startsWith("user ")) {
+            return null;
+        }
+        String name = line.substring(5).trim();
+        if (name.isEmpty() || name.length() > MAX_USER_NAME_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean isAllowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!isAllowed) {
+                return null; // also keeps the name from escaping the data directory
+            }
+        }
+        return name;
+    }
+
+    private static boolean isBye(String line) {
+        String trimmed = line.trim();
+        return trimmed.equals("bye") || trimmed.startsWith("bye ");
+    }
+
+    /**
+     * Stops accepting connections, disconnects every client and waits until all saves are on disk.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+        connections.shutdown();
+        for (CompletableFuture<Shard> shard : shards.values()) {
+            try {
+                shard.join().sync();
+            } catch (DabotException e) {
+                System.out.println(e.getMessage());
+            } catch (CompletionException e) {
+                // the shard never loaded, so it has nothing to save
+            }
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     * <p>
+     * Usage: {@code DaBotServer [--port N] [--data DIR]}; the defaults are
+     * port {@value #DEFAULT_PORT} and {@code data/users}. The storage options
+     * of the console ({@code -Ddabot.journal} and so on) apply to every user's file.
+     * </p>
+     *
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        Path dataDir = Paths.get("data", "users");
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--port") && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--data") && i + 1 < args.length) {
+                    dataDir = Paths.get(args[++i]);
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: DaBotServer [--port N] [--data DIR]");
+            return;
+        }
+        try {
+            DaBotServer server = new DaBotServer(dataDir, port, Metrics.fromSystemProperties());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.out.println("Failed to stop cleanly: " + e.getMessage());
+                }
+            }));
+            server.start();
+            System.out.println("DaBot is serving " + dataDir + " on 127.0.0.1:" + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Failed to start the server: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package dabot.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dabot.metrics.LatencyHistogram;
+
+/**
+ * Drives a {@link DaBotServer} with many concurrent clients and reports throughput and tail latency.
+ * <p>
+ * Each client connects as one of a number of users and sends a fixed mix of
+ * commands: adds, marks, a paged list, a search and a reminder query. The
+ * latency of every round trip is recorded in a {@link LatencyHistogram}.
+ * </p>
+ */
+public final class LoadGenerator {
+    private static final String[] MIX = {
+        "todo load task %d", "list /page 1 /size 10", "find load", "mark 1", "deadline report %d /by 2030-01-01",
+        "remind 7", "unmark 1", "find task %d",
+    };
+
+    private final int port;
+    private final int clientCount;
+    private final int requestsPerClient;
+    private final int userCount;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a load generator.
+     *
+     * @param port              port of the server on the loopback address
+     * @param clientCount       number of concurrent connections
+     * @param requestsPerClient commands each connection sends
+     * @param userCount         number of distinct users the connections are spread over
+     */
+    public LoadGenerator(int port, int clientCount, int requestsPerClient, int userCount) {
+        this.port = port;
+        this.clientCount = clientCount;
+        this.requestsPerClient = requestsPerClient;
+        this.userCount = userCount;
+    }
+
+    /**
+     * Runs all clients to completion.
+     *
+     * @return a one-line summary of throughput and latency percentiles
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public String run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < clientCount; i++) {
+            String user = "load-" + (i % userCount);
+            Thread t = new Thread(() -> runClient(user), "dabot-load-" + i);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long count = latencies.getCount();
+        return String.format("%d requests in %.3f s (%.0f requests/s), %d failed; "
+                        + "latency p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms",
+                count, seconds, count / seconds, failures.get(),
+                latencies.getPercentileNanos(50) / 1e6, latencies.getPercentileNanos(95) / 1e6,
+                latencies.getPercentileNanos(99) / 1e6, latencies.getMaxNanos() / 1e6);
+    }
+
+    private void runClient(String user) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            request(in, out, "user " + user);
+            for (int i = 0; i < requestsPerClient; i++) {
+                String command = String.format(MIX[i % MIX.length], i);
+                long t0 = System.nanoTime();
+                request(in, out, command);
+                latencies.record(System.nanoTime() - t0);
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    /** Sends one line and reads the framed reply. */
+    private static String request(BufferedReader in, Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        String header = in.readLine();
+        if (header == null) {
+            throw new IOException("Server closed the connection");
+        }
+        int lines = Integer.parseInt(header);
+        StringBuilder reply = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String l = in.readLine();
+            if (l == null) {
+                throw new IOException("Reply cut short");
+            }
+            reply.append(i > 0 ? "\n" : "").append(l);
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Runs {@code LoadGenerator [--port N] [--clients N] [--requests N] [--users N]} against a running server.
+     *
+     * @param args command-line arguments
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = DaBotServer.DEFAULT_PORT;
+        int clients = 16;
+        int requests = 1000;
+        int users = 16;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                int value = Integer.parseInt(args[i + 1]);
+                switch (args[i]) {
+                case "--port":
+                    port = value;
+                    break;
+                case "--clients":
+                    clients = value;
+                    break;
+                case "--requests":
+                    requests = value;
+                    break;
+                case "--users":
+                    users = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (args.length % 2 != 0 || clients <= 0 || requests < 0 || users <= 0) {
+                throw new IllegalArgumentException();
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: LoadGenerator [--port N] [--clients N] [--requests N] [--users N]");
+            return;
+        }
+        System.out.println(new LoadGenerator(port, clients, requests, users).run());
+    }
+}
@@ -0,0 +1,75 @@
+package dabot.server;
+
+import java.nio.file.Path;
+
+import dabot.io.Storage;
+import dabot.main.CommandEngine;
+import dabot.main.DabotException;
+import dabot.metrics.Metrics;
+import dabot.task.ConcurrentTaskList;
+import dabot.task.TaskList;
+
+/**
+ * One user's task list, with its own storage file and command engine.
+ * <p>
+ * Commands that change the list run one at a time, so every change and
+ * every save is serialized per user, while different users never wait on
+ * each other. The list is a {@link ConcurrentTaskList}, so read-only
+ * commands such as {@code list} and {@code find} skip the shard's lock and
+ * read the latest snapshot, even while a change is being made.
+ * </p>
+ */
+final class Shard {
+    private final Storage storage;
+    private final CommandEngine engine;
+
+    private Shard(Storage storage, CommandEngine engine) {
+        this.storage = storage;
+        this.engine = engine;
+    }
+
+    /**
+     * Loads the shard stored in {@code file}, or starts an empty one.
+     *
+     * @param file    the user's task file; created on the first save
+     * @param metrics metrics shared by all shards
+     * @return the shard
+     */
+    static Shard open(Path file, Metrics metrics) {
+        Storage storage = Storage.fromSystemProperties(file.toString());
+        storage.setMetrics(metrics);
+        TaskList tasks;
+        try {
+            tasks = new ConcurrentTaskList(storage.load());
+        } catch (DabotException e) {
+            // same as the console: start empty if the file cannot be read
+            tasks = new ConcurrentTaskList();
+        }
+        storage.attach(tasks);
+        return new Shard(storage, new CommandEngine(storage, tasks, metrics));
+    }
+
+    /**
+     * Runs one command line.
+     *
+     * @param line the command
+     * @return DaBot's reply
+     */
+    String handle(String line) {
+        if (engine.isReadOnly(line)) {
+            return engine.handle(line);
+        }
+        synchronized (this) {
+            return engine.handle(line);
+        }
+    }
+
+    /**
+     * Waits until every save of this shard is on disk.
+     *
+     * @throws DabotException if a save failed
+     */
+    synchronized void sync() throws DabotException {
+        storage.sync();
+    }
+}
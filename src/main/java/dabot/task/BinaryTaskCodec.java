@@ -0,0 +1,155 @@
+package dabot.task;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import dabot.main.DabotException;
+
+/**
+ * Compact binary encoding of a single {@link Task}.
+ * <p>
+ * Layout of one record:
+ * <pre>
+ *   byte   type      'T', 'D' or 'E'
+ *   byte   flags     bit 0: done, bit 1: first date is an epoch day, bit 2: second date is an epoch day
+ *   string description
+ *   date   by / from (Deadline and Event only)
+ *   date   to        (Event only)
+ * </pre>
+ * A string is an {@code int} byte length followed by UTF-8 bytes. A date is an
+ * {@code int} epoch day when its flag bit is set, and the raw string otherwise,
+ * so dates that were never valid ISO dates survive a round trip unchanged.
+ * </p>
+ */
+public final class BinaryTaskCodec {
+    /** Longest string a record may hold; a longer length can only come from a corrupt file. */
+    static final int MAX_STRING_BYTES = 1 << 24;
+
+    private static final int FLAG_DONE = 1;
+    private static final int FLAG_FIRST_EPOCH = 1 << 1;
+    private static final int FLAG_SECOND_EPOCH = 1 << 2;
+
+    private BinaryTaskCodec() {
+    }
+
+    /**
+     * Writes {@code task} as one binary record.
+     *
+     * @param out  destination
+     * @param task task to encode
+     * @throws IOException if writing fails
+     */
+    public static void write(DataOutput out, Task task) throws IOException {
+        int flags = task.isDone ? FLAG_DONE : 0;
+        if (task instanceof Deadline) {
+            Deadline d = (Deadline) task;
+            flags |= isExactIso(d.byRaw, d.byDate) ? FLAG_FIRST_EPOCH : 0;
+            writeHeader(out, 'D', flags, d.description);
+            writeDate(out, d.byRaw, d.byDate, (flags & FLAG_FIRST_EPOCH) != 0);
+        } else if (task instanceof Event) {
+            Event e = (Event) task;
+            flags |= isExactIso(e.startRaw, e.startTime) ? FLAG_FIRST_EPOCH : 0;
+            flags |= isExactIso(e.endRaw, e.endTime) ? FLAG_SECOND_EPOCH : 0;
+            writeHeader(out, 'E', flags, e.description);
+            writeDate(out, e.startRaw, e.startTime, (flags & FLAG_FIRST_EPOCH) != 0);
+            writeDate(out, e.endRaw, e.endTime, (flags & FLAG_SECOND_EPOCH) != 0);
+        } else {
+            writeHeader(out, 'T', flags, task.description);
+        }
+    }
+
+    /**
+     * Reads one binary record written by {@link #write(DataOutput, Task)}.
+     *
+     * @param in source
+     * @return the decoded task
+     * @throws IOException    if reading fails or the data ends early
+     * @throws DabotException if the record is corrupt: an unknown type, a string length out of range,
+     *                        or a day outside the supported dates
+     */
+    public static Task read(DataInput in) throws IOException, DabotException {
+        char type = (char) in.readUnsignedByte();
+        if (type != 'T' && type != 'D' && type != 'E') {
+            throw new DabotException("Unknown task type: " + type);
+        }
+        int flags = in.readUnsignedByte();
+        String description = readString(in);
+        Task task;
+        switch (type) {
+        case 'T':
+            task = new Todo(description);
+            break;
+        case 'D': {
+            boolean isEpoch = (flags & FLAG_FIRST_EPOCH) != 0;
+            LocalDate by = isEpoch ? readDate(in) : null;
+            task = isEpoch ? new Deadline(description, by.toString(), by) : new Deadline(description, readString(in));
+            break;
+        }
+        case 'E': {
+            boolean isStartEpoch = (flags & FLAG_FIRST_EPOCH) != 0;
+            LocalDate start = isStartEpoch ? readDate(in) : null;
+            String startRaw = isStartEpoch ? start.toString() : readString(in);
+            boolean isEndEpoch = (flags & FLAG_SECOND_EPOCH) != 0;
+            LocalDate end = isEndEpoch ? readDate(in) : null;
+            String endRaw = isEndEpoch ? end.toString() : readString(in);
+            task = isStartEpoch && isEndEpoch
+                    ? new Event(description, startRaw, endRaw, start, end)
+                    : new Event(description, startRaw, endRaw);
+            break;
+        }
+        default:
+            throw new DabotException("Unknown task type: " + type);
+        }
+        if ((flags & FLAG_DONE) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static boolean isExactIso(String raw, LocalDate date) {
+        return date != null && raw.equals(date.toString());
+    }
+
+    private static void writeHeader(DataOutput out, char type, int flags, String description) throws IOException {
+        out.writeByte(type);
+        out.writeByte(flags);
+        writeString(out, description);
+    }
+
+    private static void writeDate(DataOutput out, String raw, LocalDate date, boolean isEpoch) throws IOException {
+        if (isEpoch) {
+            out.writeInt((int) date.toEpochDay());
+        } else {
+            writeString(out, raw);
+        }
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException, DabotException {
+        int epochDay = in.readInt();
+        try {
+            return LocalDate.ofEpochDay(epochDay);
+        } catch (DateTimeException e) {
+            throw new DabotException("Day out of range: " + epochDay);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException, DabotException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new DabotException("String length out of range: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,455 @@
+package dabot.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+/**
+ * A task list stored as columns of primitives instead of one object per task.
+ * <p>
+ * Each task is a row across a {@code byte} type column, a {@link BitSet} of
+ * done flags, two {@code int} epoch-day columns and an offset into one byte
+ * arena that holds the UTF-8 descriptions back to back. A raw date is only
+ * kept, in the arena after the description, when it is not the ISO form of
+ * its epoch day, e.g. {@code Sunday}. That comes to a few dozen bytes per
+ * task, where a {@link Deadline} or {@link Event} object with its strings
+ * and {@link LocalDate}s takes a few hundred.
+ * </p>
+ * <p>
+ * {@link #get(int)} decodes a row into a new, short-lived {@link Task}, so a
+ * change to that object is not written back; a {@link TaskList} over this
+ * list makes its changes through {@link #setDone(int, boolean)} and the
+ * other list operations. Date queries scan the
+ * epoch-day columns, and keyword searches decode one row at a time, so no
+ * index holds the tasks as objects. Inserting or removing a row shifts the
+ * columns after it, which is a bulk array copy.
+ * </p>
+ */
+public final class ColumnarTaskList extends AbstractList<Task> implements RandomAccess, TaskStore {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte TYPE_MASK = 3;
+    /** Set when the first date's raw text is kept in the arena. */
+    private static final byte RAW_FIRST = 1 << 2;
+    /** Set when the second date's raw text is kept in the arena. */
+    private static final byte RAW_SECOND = 1 << 3;
+    /** Epoch-day column value of a date that is missing or does not fit in an {@code int}. */
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    /** Decoded rows are short-lived copies, so their strings are not worth pooling. */
+    private static final StringPool NO_POOL = new StringPool(0);
+
+    private byte[] types;
+    private final BitSet done = new BitSet();
+    private int[] firstDays;
+    private int[] secondDays;
+    private int[] textStarts;
+    private byte[] arena = new byte[256];
+    private int arenaSize;
+    private int garbage;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public ColumnarTaskList() {
+        allocate(16);
+    }
+
+    /**
+     * Creates a list holding {@code initial}, in iteration order.
+     *
+     * @param initial tasks to store
+     */
+    public ColumnarTaskList(Collection<? extends Task> initial) {
+        allocate(Math.max(16, initial.size()));
+        for (Task t : initial) {
+            add(size, t);
+        }
+    }
+
+    private void allocate(int capacity) {
+        types = new byte[capacity];
+        firstDays = new int[capacity];
+        secondDays = new int[capacity];
+        textStarts = new int[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes the task in row {@code index}.
+     *
+     * @param index row to decode
+     * @return a new task equal to the one stored; changing it does not change the list
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        int type = types[index] & TYPE_MASK;
+        int[] pos = {textStarts[index]};
+        String description = readString(pos);
+        Task task;
+        if (type == TODO) {
+            task = new Todo(description, NO_POOL);
+        } else if (type == DEADLINE) {
+            LocalDate by = dayOf(firstDays[index]);
+            String byRaw = (types[index] & RAW_FIRST) != 0 ? readString(pos) : by.toString();
+            task = new Deadline(description, byRaw, by != null ? by : IsoDates.parseOrNull(byRaw), NO_POOL);
+        } else {
+            LocalDate start = dayOf(firstDays[index]);
+            String startRaw = (types[index] & RAW_FIRST) != 0 ? readString(pos) : start.toString();
+            LocalDate end = dayOf(secondDays[index]);
+            String endRaw = (types[index] & RAW_SECOND) != 0 ? readString(pos) : end.toString();
+            task = new Event(description, startRaw, endRaw,
+                    start != null ? start : IsoDates.parseOrNull(startRaw),
+                    end != null ? end : IsoDates.parseOrNull(endRaw), NO_POOL);
+        }
+        task.isDone = done.get(index);
+        return task;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        garbage += recordLength(index);
+        store(index, task);
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        if (size == types.length) {
+            int capacity = size + (size >> 1) + 16;
+            types = Arrays.copyOf(types, capacity);
+            firstDays = Arrays.copyOf(firstDays, capacity);
+            secondDays = Arrays.copyOf(secondDays, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity);
+        }
+        if (index < size) {
+            shift(index, index + 1, size - index);
+        }
+        size++;
+        store(index, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        removeAll(new int[] {index});
+        return removed;
+    }
+
+    /**
+     * Removes the rows at the given indices, moving every kept row at most once.
+     *
+     * @param sortedIndices indices to remove, ascending and without duplicates
+     */
+    @Override
+    public void removeAll(int[] sortedIndices) {
+        if (sortedIndices.length == 0) {
+            return;
+        }
+        int write = sortedIndices[0];
+        int next = 0;
+        for (int read = sortedIndices[0]; read < size; read++) {
+            if (next < sortedIndices.length && sortedIndices[next] == read) {
+                garbage += recordLength(read);
+                next++;
+                continue;
+            }
+            types[write] = types[read];
+            done.set(write, done.get(read));
+            firstDays[write] = firstDays[read];
+            secondDays[write] = secondDays[read];
+            textStarts[write] = textStarts[read];
+            write++;
+        }
+        done.clear(write, size);
+        size = write;
+        modCount++;
+        compactIfWasteful();
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        arenaSize = 0;
+        garbage = 0;
+        done.clear();
+        modCount++;
+    }
+
+    /**
+     * Sets the done flag of row {@code index}.
+     *
+     * @param index  row to change
+     * @param isDone new status
+     * @return the row decoded with its new status
+     */
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        checkIndex(index, size);
+        done.set(index, isDone);
+        return get(index);
+    }
+
+    /**
+     * Returns the indices of all rows that are marked done.
+     *
+     * @return ascending indices of done tasks
+     */
+    @Override
+    public int[] doneIndices() {
+        return done.stream().filter(i -> i < size).toArray();
+    }
+
+    /**
+     * Returns deadlines due within {@code [from, to]} and events that overlap it, with the rules of
+     * {@link DateIndex}.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    @Override
+    public List<Task> between(LocalDate from, LocalDate to) {
+        long lo = from.toEpochDay();
+        long hi = to.toEpochDay();
+        List<Task> out = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int type = types[i] & TYPE_MASK;
+            int first = firstDays[i];
+            int second = secondDays[i];
+            if (type == EVENT && first == NO_DAY) {
+                first = second; // an event with only one parsed date covers just that day
+            } else if (type == EVENT && second == NO_DAY) {
+                second = first;
+            } else if (type == DEADLINE) {
+                second = first;
+            }
+            if (type != TODO && first != NO_DAY
+                    && Math.min(first, second) <= hi && Math.max(first, second) >= lo) {
+                out.add(get(i));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the tasks that are not done and are due or start between {@code from} and {@code to}, inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    @Override
+    public List<Task> pendingBetween(LocalDate from, LocalDate to) {
+        long lo = from.toEpochDay();
+        long hi = to.toEpochDay();
+        List<Task> out = new ArrayList<>();
+        for (int i = done.nextClearBit(0); i < size; i = done.nextClearBit(i + 1)) {
+            int day = firstDays[i];
+            if ((types[i] & TYPE_MASK) != TODO && day != NO_DAY && day >= lo && day <= hi) {
+                out.add(get(i));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the tasks that, for every word of {@code queryWords}, have a word containing it,
+     * with the rules of {@link KeywordIndex#candidates(String[])}.
+     *
+     * @param queryWords lowercase query words; must not be empty
+     * @return candidate tasks in list order
+     */
+    @Override
+    public List<Task> candidates(String[] queryWords) {
+        List<Task> out = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Task task = get(i);
+            if (containsAll(task.toString().toLowerCase(Locale.ROOT), queryWords)) {
+                out.add(task);
+            }
+        }
+        return out;
+    }
+
+    private static boolean containsAll(String text, String[] queryWords) {
+        for (String word : queryWords) {
+            if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bytes held by the columns and the arena, including unused capacity.
+     *
+     * @return footprint in bytes
+     */
+    public long footprintBytes() {
+        long arrayHeader = 16;
+        return 5 * arrayHeader + types.length + 4L * (firstDays.length + secondDays.length + textStarts.length)
+                + arena.length + done.size() / 8 + arrayHeader;
+    }
+
+    /**
+     * Describes the memory taken by the list, for the {@code stats} command.
+     *
+     * @return e.g. {@code Task columns: 1000000 tasks in 41.3 MB (43.3 bytes per task)}
+     */
+    public String footprint() {
+        long bytes = footprintBytes();
+        return String.format("Task columns: %d tasks in %.1f MB (%.1f bytes per task)",
+                size, bytes / 1e6, size == 0 ? 0.0 : (double) bytes / size);
+    }
+
+    /** Writes {@code task} into row {@code index}, appending its text to the arena. */
+    private void store(int index, Task task) {
+        byte flags;
+        int first = NO_DAY;
+        int second = NO_DAY;
+        textStarts[index] = arenaSize;
+        appendString(task.description);
+        if (task instanceof Deadline) {
+            Deadline d = (Deadline) task;
+            first = dayColumn(d.byDate);
+            flags = (byte) (DEADLINE | keepRaw(d.byRaw, d.byDate, RAW_FIRST));
+        } else if (task instanceof Event) {
+            Event e = (Event) task;
+            first = dayColumn(e.startTime);
+            second = dayColumn(e.endTime);
+            flags = (byte) (EVENT | keepRaw(e.startRaw, e.startTime, RAW_FIRST)
+                    | keepRaw(e.endRaw, e.endTime, RAW_SECOND));
+        } else {
+            flags = TODO;
+        }
+        types[index] = flags;
+        firstDays[index] = first;
+        secondDays[index] = second;
+        done.set(index, task.isDone);
+    }
+
+    /** Appends {@code raw} to the arena unless it can be rebuilt from the day column, and returns the flag to set. */
+    private byte keepRaw(String raw, LocalDate date, byte flag) {
+        if (date != null && dayColumn(date) != NO_DAY && raw.equals(date.toString())) {
+            return 0;
+        }
+        appendString(raw);
+        return flag;
+    }
+
+    private static int dayColumn(LocalDate date) {
+        if (date == null) {
+            return NO_DAY;
+        }
+        long day = date.toEpochDay();
+        return day > Integer.MIN_VALUE && day <= Integer.MAX_VALUE ? (int) day : NO_DAY;
+    }
+
+    private static LocalDate dayOf(int day) {
+        return day == NO_DAY ? null : LocalDate.ofEpochDay(day);
+    }
+
+    /** Appends a string as a variable-length byte count followed by its UTF-8 bytes. */
+    private void appendString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        ensureArena(bytes.length + 5);
+        int n = bytes.length;
+        while (n >= 0x80) {
+            arena[arenaSize++] = (byte) (n | 0x80);
+            n >>>= 7;
+        }
+        arena[arenaSize++] = (byte) n;
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize += bytes.length;
+    }
+
+    /** Reads a string written by {@link #appendString(String)} at {@code pos[0]} and moves past it. */
+    private String readString(int[] pos) {
+        int start = skipString(pos);
+        return new String(arena, start, pos[0] - start, StandardCharsets.UTF_8);
+    }
+
+    /** Moves {@code pos[0]} past the string there and returns where its bytes start. */
+    private int skipString(int[] pos) {
+        int p = pos[0];
+        int n = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = arena[p++];
+            n |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        pos[0] = p + n;
+        return p;
+    }
+
+    /** Returns the number of arena bytes that row {@code index} uses. */
+    private int recordLength(int index) {
+        int[] pos = {textStarts[index]};
+        int strings = 1 + Integer.bitCount(types[index] & (RAW_FIRST | RAW_SECOND));
+        for (int i = 0; i < strings; i++) {
+            skipString(pos);
+        }
+        return pos[0] - textStarts[index];
+    }
+
+    private void ensureArena(int extra) {
+        if (arenaSize + extra > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + extra, arena.length + (arena.length >> 1)));
+        }
+    }
+
+    /** Rewrites the arena without the text of removed or replaced rows once that is more than half of it. */
+    private void compactIfWasteful() {
+        if (garbage <= arenaSize / 2) {
+            return;
+        }
+        byte[] packed = new byte[Math.max(256, arenaSize - garbage)];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int length = recordLength(i);
+            System.arraycopy(arena, textStarts[i], packed, n, length);
+            textStarts[i] = n;
+            n += length;
+        }
+        arena = packed;
+        arenaSize = n;
+        garbage = 0;
+    }
+
+    private void shift(int from, int to, int count) {
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(firstDays, from, firstDays, to, count);
+        System.arraycopy(secondDays, from, secondDays, to, count);
+        System.arraycopy(textStarts, from, textStarts, to, count);
+        for (int i = from + count - 1; i >= from; i--) {
+            done.set(i - from + to, done.get(i));
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
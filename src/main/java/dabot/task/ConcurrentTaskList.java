@@ -0,0 +1,178 @@
+package dabot.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dabot.main.DabotException;
+
+/**
+ * A {@link TaskList} that any number of threads can read while another changes it.
+ * <p>
+ * The current state is an immutable {@link TaskSnapshot}, held by a
+ * {@link SnapshotTaskStore}. Reads, including {@code find}, {@code tasksOn},
+ * {@code remindersWithinDays} and rendering the tasks returned by
+ * {@link #asList()}, work on whichever snapshot was current when they
+ * started, with the indexes published along with it, and never lock or see
+ * a half-made change. Writers are serialized; each builds the next snapshot
+ * and its indexes and publishes them with a single volatile write, so a
+ * change becomes visible all at once.
+ * </p>
+ * <p>
+ * Adding a task costs amortized constant time, as the new snapshot shares
+ * its chunks with the previous one. Marking copies the marked tasks and the
+ * chunks holding them, so that no task object a reader may hold ever
+ * changes; deleting copies the list. Each change adds only its own tasks to
+ * the indexes, as described in {@link SnapshotIndexes}.
+ * </p>
+ */
+public class ConcurrentTaskList extends TaskList {
+    private final Object writeLock = new Object();
+    private final SnapshotTaskStore store;
+
+    /**
+     * Creates an empty {@code ConcurrentTaskList}.
+     */
+    public ConcurrentTaskList() {
+        this(List.of());
+    }
+
+    /**
+     * Creates a {@code ConcurrentTaskList} with initial tasks.
+     * <p>
+     * The tasks are copied, so a lazily decoded list is decoded in full here.
+     * </p>
+     *
+     * @param initial list of tasks to populate
+     */
+    public ConcurrentTaskList(List<Task> initial) {
+        this(new SnapshotTaskStore(initial));
+    }
+
+    private ConcurrentTaskList(SnapshotTaskStore store) {
+        super(store.view(), store);
+        this.store = store;
+    }
+
+    /**
+     * Returns the current version of the list.
+     * <p>
+     * A command that reads the list several times should take one snapshot
+     * and read from it, so that all of its reads agree.
+     * </p>
+     *
+     * @return the latest published snapshot
+     */
+    public TaskSnapshot snapshot() {
+        return store.current();
+    }
+
+    /**
+     * Registers a listener that is notified of every subsequent change, on the writing thread.
+     *
+     * @param listener listener to notify
+     */
+    @Override
+    public void addListener(TaskListListener listener) {
+        synchronized (writeLock) {
+            super.addListener(listener);
+        }
+    }
+
+    /**
+     * Returns the tasks of the current snapshot.
+     *
+     * @return an unmodifiable list that does not change when this list does
+     */
+    @Override
+    public List<Task> asList() {
+        return snapshot().asList();
+    }
+
+    @Override
+    public Task get(int index) {
+        return snapshot().get(index);
+    }
+
+    @Override
+    public void add(Task... newTasks) {
+        synchronized (writeLock) {
+            int size = store.current().size();
+            store.add(newTasks);
+            for (int i = 0; i < newTasks.length; i++) {
+                for (TaskListListener l : listeners()) {
+                    l.taskAdded(size + i, newTasks[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Task delete(int index) throws DabotException {
+        return deleteAll(new int[] {index}).get(0);
+    }
+
+    @Override
+    public void mark(int index) throws DabotException {
+        markAll(new int[] {index});
+    }
+
+    @Override
+    public void unmark(int index) throws DabotException {
+        unmarkAll(new int[] {index});
+    }
+
+    @Override
+    public List<Task> deleteAll(int[] indices) throws DabotException {
+        synchronized (writeLock) {
+            TaskSnapshot old = store.current();
+            checkIndices(old, indices);
+            List<Task> removed = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                removed.add(old.get(index));
+            }
+            store.removeAll(indices);
+            for (int i = indices.length - 1; i >= 0; i--) {
+                for (TaskListListener l : listeners()) {
+                    l.taskRemoved(indices[i], removed.get(i));
+                }
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public List<Task> markAll(int[] indices) throws DabotException {
+        return setDoneAll(indices, true);
+    }
+
+    @Override
+    public List<Task> unmarkAll(int[] indices) throws DabotException {
+        return setDoneAll(indices, false);
+    }
+
+    private List<Task> setDoneAll(int[] indices, boolean isDone) throws DabotException {
+        synchronized (writeLock) {
+            checkIndices(store.current(), indices);
+            List<Task> changed = store.setDoneAll(indices, isDone);
+            for (int i = 0; i < indices.length; i++) {
+                for (TaskListListener l : listeners()) {
+                    l.taskUpdated(indices[i], changed.get(i));
+                }
+            }
+            return changed;
+        }
+    }
+
+    private static void checkIndices(TaskSnapshot snapshot, int[] indices) throws DabotException {
+        for (int index : indices) {
+            if (index < 0 || index >= snapshot.size()) {
+                throw new DabotException("Task number " + (index + 1) + " is out of range.");
+            }
+        }
+    }
+
+    @Override
+    public ArrayList<Task> find(String keyword) {
+        return snapshot().find(keyword);
+    }
+}
@@ -0,0 +1,169 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Index of the dated tasks by epoch-day.
+ * <p>
+ * Keeps two structures: an {@link IntervalTree} of the days each
+ * {@link Deadline} and {@link Event} covers, for
+ * {@link TaskList#tasksBetween(LocalDate, LocalDate)}, and a sorted map from
+ * the reminder date of each task that is not done, for
+ * {@link TaskList#remindersWithinDays(int)}. Marking a task moves it out of
+ * the map, so reminder queries never look at done tasks. Both queries cost a
+ * logarithmic search plus the size of the answer.
+ * </p>
+ */
+class DateIndex extends TaskIndex<DateIndex.Dates> {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final IntervalTree spans = new IntervalTree();
+    private final TreeMap<Long, PostingList> pendingByDay = new TreeMap<>();
+
+    /** The epoch-days one task is indexed under; {@code NONE} where it has no such day. */
+    static final class Dates {
+        private static final Dates UNDATED = new Dates(NONE, NONE, NONE);
+
+        private final long first;
+        private final long last;
+        private final long reminderDay;
+
+        Dates(long first, long last, long reminderDay) {
+            this.first = first;
+            this.last = last;
+            this.reminderDay = reminderDay;
+        }
+
+        /** Returns whether the task would be found by {@link DateIndex#between(LocalDate, LocalDate)}. */
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return first != NONE && first <= to.toEpochDay() && last >= from.toEpochDay();
+        }
+
+        /** Returns whether the task would be found by {@link DateIndex#pendingBetween(LocalDate, LocalDate)}. */
+        boolean isPendingBetween(LocalDate from, LocalDate to) {
+            return reminderDay != NONE && reminderDay >= from.toEpochDay() && reminderDay <= to.toEpochDay();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Dates)) {
+                return false;
+            }
+            Dates other = (Dates) o;
+            return first == other.first && last == other.last && reminderDay == other.reminderDay;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(first, last, reminderDay);
+        }
+    }
+
+    /**
+     * Builds an index over {@code tasks}, in list order.
+     *
+     * @param tasks tasks to index
+     */
+    DateIndex(List<Task> tasks) {
+        indexAll(tasks);
+    }
+
+    /**
+     * Returns the tasks with a deadline in {@code [from, to]} or an event that overlaps it.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> between(LocalDate from, LocalDate to) {
+        return tasksFor(spans.overlapping(from.toEpochDay(), to.toEpochDay()));
+    }
+
+    /**
+     * Returns the tasks that are not done and are due or start between {@code from} and {@code to}, inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> pendingBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return tasksFor(new int[0]);
+        }
+        Collection<PostingList> range = pendingByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values();
+        int total = 0;
+        for (PostingList p : range) {
+            total += p.size();
+        }
+        int[] ids = new int[total];
+        int n = 0;
+        for (PostingList p : range) {
+            p.copyTo(ids, n);
+            n += p.size();
+        }
+        Arrays.sort(ids); // each task has one reminder day, so there are no duplicates to drop
+        return tasksFor(ids);
+    }
+
+    @Override
+    Dates keysOf(Task task) {
+        return datesOf(task);
+    }
+
+    /**
+     * Returns the days {@code task} is indexed under.
+     *
+     * @param task task to inspect
+     * @return its dates
+     */
+    static Dates datesOf(Task task) {
+        if (task instanceof Deadline) {
+            LocalDate by = ((Deadline) task).byDate;
+            if (by == null) {
+                return Dates.UNDATED;
+            }
+            return new Dates(by.toEpochDay(), by.toEpochDay(), task.isDone ? NONE : by.toEpochDay());
+        }
+        if (task instanceof Event) {
+            Event e = (Event) task;
+            if (e.startTime == null && e.endTime == null) {
+                return Dates.UNDATED;
+            }
+            // an event with only one parsed date covers just that day; a reversed one covers the days between
+            long start = (e.startTime != null ? e.startTime : e.endTime).toEpochDay();
+            long end = (e.endTime != null ? e.endTime : e.startTime).toEpochDay();
+            long reminder = (e.startTime == null || task.isDone) ? NONE : start;
+            return new Dates(Math.min(start, end), Math.max(start, end), reminder);
+        }
+        return Dates.UNDATED;
+    }
+
+    @Override
+    void addKeys(int id, Dates dates) {
+        if (dates.first != NONE) {
+            spans.insert(dates.first, dates.last, id);
+        }
+        if (dates.reminderDay != NONE) {
+            pendingByDay.computeIfAbsent(dates.reminderDay, k -> new PostingList()).insert(id);
+        }
+    }
+
+    @Override
+    void removeKeys(int id, Dates dates) {
+        if (dates.first != NONE) {
+            spans.remove(dates.first, id);
+        }
+        if (dates.reminderDay != NONE) {
+            PostingList p = pendingByDay.get(dates.reminderDay);
+            p.remove(id);
+            if (p.isEmpty()) {
+                pendingByDay.remove(dates.reminderDay);
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package dabot.task;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Represents a deadline task that must be completed by a specific date.
@@ -28,13 +26,32 @@ public class Deadline extends Task {
      * @param by          deadline as entered by the user
      */
     public Deadline(String description, String by) {
-        super(description);
-        this.byRaw = by;
-        try {
-            this.byDate = LocalDate.parse(by); // if valid, store as date
-        } catch (DateTimeParseException e) {
-            this.byDate = null;
-        }
+        this(description, by, IsoDates.parseOrNull(by)); // null unless a valid ISO date
+    }
+
+    /**
+     * Constructs a {@code Deadline} whose date has already been parsed.
+     *
+     * @param description description of the deadline task
+     * @param by          deadline as entered by the user
+     * @param byDate      the parsed form of {@code by}, or {@code null}
+     */
+    Deadline(String description, String by, LocalDate byDate) {
+        this(description, by, byDate, StringPool.shared());
+    }
+
+    /**
+     * Constructs a {@code Deadline} whose date has already been parsed, sharing its strings through {@code pool}.
+     *
+     * @param description description of the deadline task
+     * @param by          deadline as entered by the user
+     * @param byDate      the parsed form of {@code by}, or {@code null}
+     * @param pool        pool for the description and {@code by}
+     */
+    Deadline(String description, String by, LocalDate byDate, StringPool pool) {
+        super(description, pool);
+        this.byRaw = pool.intern(by);
+        this.byDate = byDate;
     }
 
     /**
@@ -48,15 +65,23 @@ public class Deadline extends Task {
      * @return the string representation of the deadline task
      */
     @Override
-    public String toString() {
+    protected String render() {
         if (byDate != null) {
-            return "[D]" + super.toString() + " (by: "
-                    + byDate.format(DateTimeFormatter.ofPattern("MMM dd yyyy")) + ")";
+            return "[D]" + super.render() + " (by: " + displayBy() + ")";
         } else {
-            return "[D]" + super.toString() + "(by: " + byRaw + ")";
+            return "[D]" + super.render() + "(by: " + byRaw + ")";
         }
     }
 
+    private String displayBy() {
+        return byDate != null ? byDate.format(DISPLAY_DATE) : byRaw;
+    }
+
+    @Override
+    Task copy() {
+        return new Deadline(description, byRaw, byDate);
+    }
+
     /**
      * Returns the type of this task as a single-letter code.
      *
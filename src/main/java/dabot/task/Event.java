@@ -1,8 +1,6 @@
 package dabot.task;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Represents an event task with a start and end time.
@@ -31,19 +29,39 @@ public class Event extends Task {
      * @param endRaw      end time as entered by the user
      */
     public Event(String description, String startRaw, String endRaw) {
-        super(description);
-        this.startRaw = startRaw;
-        this.endRaw = endRaw;
-        try {
-            this.startTime = LocalDate.parse(startRaw);
-        } catch (DateTimeParseException e) {
-            this.startTime = null;
-        }
-        try {
-            this.endTime = LocalDate.parse(endRaw);
-        } catch (DateTimeParseException e) {
-            this.endTime = null;
-        }
+        this(description, startRaw, endRaw, IsoDates.parseOrNull(startRaw), IsoDates.parseOrNull(endRaw));
+    }
+
+    /**
+     * Constructs an {@code Event} whose dates have already been parsed.
+     *
+     * @param description description of the event
+     * @param startRaw    start time as entered by the user
+     * @param endRaw      end time as entered by the user
+     * @param startTime   the parsed form of {@code startRaw}, or {@code null}
+     * @param endTime     the parsed form of {@code endRaw}, or {@code null}
+     */
+    Event(String description, String startRaw, String endRaw, LocalDate startTime, LocalDate endTime) {
+        this(description, startRaw, endRaw, startTime, endTime, StringPool.shared());
+    }
+
+    /**
+     * Constructs an {@code Event} whose dates have already been parsed, sharing its strings through {@code pool}.
+     *
+     * @param description description of the event
+     * @param startRaw    start time as entered by the user
+     * @param endRaw      end time as entered by the user
+     * @param startTime   the parsed form of {@code startRaw}, or {@code null}
+     * @param endTime     the parsed form of {@code endRaw}, or {@code null}
+     * @param pool        pool for the description and raw times
+     */
+    Event(String description, String startRaw, String endRaw, LocalDate startTime, LocalDate endTime,
+            StringPool pool) {
+        super(description, pool);
+        this.startRaw = pool.intern(startRaw);
+        this.endRaw = pool.intern(endRaw);
+        this.startTime = startTime;
+        this.endTime = endTime;
     }
 
     /**
@@ -56,14 +74,18 @@ public class Event extends Task {
      * @return the string representation of the event task
      */
     @Override
-    public String toString() {
-        String startStr = (startTime != null)
-                ? startTime.format(DateTimeFormatter.ofPattern("MMM dd yyyy"))
-                : startRaw;
-        String endStr = (endTime != null)
-                ? endTime.format(DateTimeFormatter.ofPattern("MMM dd yyyy"))
-                : endRaw;
-        return "[E]" + super.toString() + " (from: " + startStr + " to: " + endStr + ")";
+    protected String render() {
+        return "[E]" + super.render() + " (from: " + display(startTime, startRaw)
+                + " to: " + display(endTime, endRaw) + ")";
+    }
+
+    private static String display(LocalDate date, String raw) {
+        return (date != null) ? date.format(DISPLAY_DATE) : raw;
+    }
+
+    @Override
+    Task copy() {
+        return new Event(description, startRaw, endRaw, startTime, endTime);
     }
 
     /**
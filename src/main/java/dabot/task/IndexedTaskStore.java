@@ -0,0 +1,108 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link TaskStore} over a list of task objects, answering queries from a keyword and a date index.
+ * <p>
+ * Tasks are changed in place. The indexes are built on first use, so that
+ * lazily loaded tasks stay undecoded until then, and follow the owning
+ * {@link TaskList} as listeners. Removing many tasks at once is a single
+ * pass if the list is a {@link RankedList}.
+ * </p>
+ */
+final class IndexedTaskStore implements TaskStore {
+    private final List<Task> tasks;
+    private final List<TaskListListener> listeners;
+    private KeywordIndex keywordIndex;
+    private DateIndex dateIndex;
+
+    /**
+     * Creates a store over {@code tasks}.
+     *
+     * @param tasks     tasks to store
+     * @param listeners listeners of the owning list, which the indexes join once built
+     */
+    IndexedTaskStore(List<Task> tasks, List<TaskListListener> listeners) {
+        this.tasks = tasks;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void removeAll(int[] sortedIndices) {
+        if (tasks instanceof RankedList) {
+            ((RankedList<Task>) tasks).removeAll(sortedIndices);
+            return;
+        }
+        for (int i = sortedIndices.length - 1; i >= 0; i--) {
+            tasks.remove(sortedIndices[i]);
+        }
+    }
+
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        Task task = tasks.get(index);
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsUndone();
+        }
+        return task;
+    }
+
+    @Override
+    public int[] doneIndices() {
+        int[] out = new int[16];
+        int n = 0;
+        int index = 0;
+        for (Task t : tasks) {
+            if (t.isDone) {
+                if (n == out.length) {
+                    out = Arrays.copyOf(out, n * 2);
+                }
+                out[n++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    @Override
+    public List<Task> between(LocalDate from, LocalDate to) {
+        return dateIndex().between(from, to);
+    }
+
+    @Override
+    public List<Task> pendingBetween(LocalDate from, LocalDate to) {
+        return dateIndex().pendingBetween(from, to);
+    }
+
+    @Override
+    public List<Task> candidates(String[] queryWords) {
+        return keywordIndex().candidates(queryWords);
+    }
+
+    /** Returns the keyword index, building it on first use. */
+    private KeywordIndex keywordIndex() {
+        if (keywordIndex == null || !keywordIndex.isValid()) {
+            keywordIndex = replaceIndex(keywordIndex, new KeywordIndex(tasks));
+        }
+        return keywordIndex;
+    }
+
+    /** Returns the date index, building it on first use. */
+    private DateIndex dateIndex() {
+        if (dateIndex == null || !dateIndex.isValid()) {
+            dateIndex = replaceIndex(dateIndex, new DateIndex(tasks));
+        }
+        return dateIndex;
+    }
+
+    private <T extends TaskIndex<?>> T replaceIndex(T old, T rebuilt) {
+        listeners.remove(old);
+        listeners.add(rebuilt);
+        return rebuilt;
+    }
+}
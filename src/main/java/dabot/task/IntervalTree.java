@@ -0,0 +1,160 @@
+package dabot.task;
+
+import java.util.Arrays;
+
+/**
+ * Set of closed {@code [lo, hi]} intervals, each tagged with a task id, answering overlap queries.
+ * <p>
+ * A treap ordered by {@code (lo, id)} in which every node also holds the
+ * largest {@code hi} in its subtree. A query skips any subtree whose largest
+ * {@code hi} ends before the range and stops walking right once {@code lo}
+ * passes it, so finding the {@code k} overlapping intervals costs expected
+ * {@code O(log n + k)}. Priorities are a hash of the id, which keeps the
+ * shape balanced without a random number generator.
+ * </p>
+ */
+final class IntervalTree {
+    private Node root;
+    private int size;
+
+    private static final class Node {
+        private final long lo;
+        private final long hi;
+        private final int id;
+        private final int priority;
+        private long maxHi;
+        private Node left;
+        private Node right;
+
+        Node(long lo, long hi, int id) {
+            this.lo = lo;
+            this.hi = hi;
+            this.id = id;
+            this.priority = mix(id);
+            this.maxHi = hi;
+        }
+
+        /** Returns whether this node sorts before {@code (lo, id)}. */
+        boolean isBefore(long lo, int id) {
+            return this.lo < lo || (this.lo == lo && this.id < id);
+        }
+
+        void update() {
+            long max = hi;
+            if (left != null && left.maxHi > max) {
+                max = left.maxHi;
+            }
+            if (right != null && right.maxHi > max) {
+                max = right.maxHi;
+            }
+            maxHi = max;
+        }
+    }
+
+    /**
+     * Adds an interval.
+     *
+     * @param lo first day of the interval
+     * @param hi last day of the interval; not before {@code lo}
+     * @param id task id; unique among the intervals starting at {@code lo}
+     */
+    void insert(long lo, long hi, int id) {
+        assert lo <= hi : "Interval must not end before it starts";
+        Node[] parts = split(root, lo, id);
+        root = merge(merge(parts[0], new Node(lo, hi, id)), parts[1]);
+        size++;
+    }
+
+    /**
+     * Removes an interval previously added with {@link #insert(long, long, int)}.
+     *
+     * @param lo first day of the interval
+     * @param id task id
+     */
+    void remove(long lo, int id) {
+        Node[] parts = split(root, lo, id);
+        Node[] rest = split(parts[1], lo, id + 1);
+        if (rest[0] != null) {
+            size--;
+        }
+        root = merge(parts[0], rest[1]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ids of all intervals that share at least one day with {@code [from, to]}.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching ids in ascending order
+     */
+    int[] overlapping(long from, long to) {
+        int[][] out = {new int[16]};
+        int n = collect(root, from, to, out, 0);
+        int[] ids = Arrays.copyOf(out[0], n);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int collect(Node node, long from, long to, int[][] out, int n) {
+        while (node != null && node.maxHi >= from) {
+            n = collect(node.left, from, to, out, n);
+            if (node.lo > to) {
+                break; // everything to the right starts even later
+            }
+            if (node.hi >= from) {
+                if (n == out[0].length) {
+                    out[0] = Arrays.copyOf(out[0], n * 2);
+                }
+                out[0][n++] = node.id;
+            }
+            node = node.right;
+        }
+        return n;
+    }
+
+    /** Splits into the nodes before {@code (lo, id)} and the rest. */
+    private static Node[] split(Node node, long lo, int id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.isBefore(lo, id)) {
+            Node[] parts = split(node.right, lo, id);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, lo, id);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /** Joins two treaps where every node of {@code a} sorts before every node of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
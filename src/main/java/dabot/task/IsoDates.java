@@ -0,0 +1,80 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Recognises {@code yyyy-MM-dd} dates without using exceptions for control flow.
+ * <p>
+ * Task dates are often free text such as {@code Sunday} or {@code 4pm}.
+ * {@link LocalDate#parse(CharSequence)} reports those by throwing, which
+ * costs a stack trace per line when loading large files. This class checks
+ * the shape of the text first and only builds a {@link LocalDate} for real
+ * ISO dates.
+ * </p>
+ */
+public final class IsoDates {
+
+    private IsoDates() {
+    }
+
+    /**
+     * Parses {@code text} as an ISO date, accepting exactly what {@link LocalDate#parse(CharSequence)} accepts.
+     *
+     * @param text text to parse
+     * @return the date, or {@code null} if {@code text} is not a valid ISO date
+     */
+    public static LocalDate parseOrNull(CharSequence text) {
+        int n = text.length();
+        if (n == 10) {
+            return parsePlain(text);
+        }
+        if (n > 10 && (text.charAt(0) == '+' || text.charAt(0) == '-')) {
+            return parseSigned(text); // years beyond 9999 or before 0; rare enough to use the JDK
+        }
+        return null;
+    }
+
+    private static LocalDate parsePlain(CharSequence s) {
+        if (s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        if (day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private static LocalDate parseSigned(CharSequence s) {
+        for (int i = 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '-' && (c < '0' || c > '9')) {
+                return null;
+            }
+        }
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Returns the value of the decimal digits in {@code [from, to)}, or -1 if any is not a digit. */
+    private static int digits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,147 @@
+package dabot.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index from lowercase word to the tasks whose display text contains it.
+ * <p>
+ * {@code find} matches any substring of a task's display text, so the index
+ * only narrows the tasks down: a task can only contain a query if each word
+ * of the query is part of one of its words. A query looks through the
+ * distinct words, which repeat across tasks, and merges a few id arrays,
+ * rather than formatting every task.
+ * </p>
+ */
+class KeywordIndex extends TaskIndex<String[]> {
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * Builds an index over {@code tasks}, in list order.
+     *
+     * @param tasks tasks to index
+     */
+    KeywordIndex(List<Task> tasks) {
+        indexAll(tasks);
+    }
+
+    /**
+     * Splits text into lowercase words of letters and digits.
+     *
+     * @param text text to split
+     * @return the words, possibly with duplicates
+     */
+    static String[] tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean isWordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the words of a {@code find} keyword that the index can narrow the search with.
+     * <p>
+     * Keywords with characters other than letters, digits and spaces, such as
+     * {@code [D]} or {@code (by:}, span the markers and punctuation between
+     * words, and are left to a scan of every task.
+     * </p>
+     *
+     * @param keyword keyword as typed
+     * @return its lowercase words, or {@code null} if the tasks must be scanned
+     */
+    static String[] queryWords(String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (!Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        String[] words = tokenize(keyword);
+        return words.length == 0 ? null : words;
+    }
+
+    /**
+     * Returns the tasks that, for every word of {@code queryWords}, have a word containing it.
+     * <p>
+     * These include every task whose display text contains the query, and
+     * callers check each one against the query itself.
+     * </p>
+     *
+     * @param queryWords lowercase query words; must not be empty
+     * @return candidate tasks in list order
+     */
+    List<Task> candidates(String[] queryWords) {
+        assert queryWords.length > 0 : "Query must have at least one word";
+        int[][] lists = new int[queryWords.length][];
+        for (int i = 0; i < queryWords.length; i++) {
+            lists[i] = containing(queryWords[i]);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = PostingList.intersect(result, lists[i]);
+        }
+        return tasksFor(result);
+    }
+
+    private int[] containing(String part) {
+        PostingList first = null;
+        BitSet merged = null;
+        for (Map.Entry<String, PostingList> e : postings.entrySet()) {
+            if (!e.getKey().contains(part)) {
+                continue;
+            }
+            if (first == null) {
+                first = e.getValue();
+                continue;
+            }
+            // one pass over every matching word, however many there are, instead of merging them pairwise
+            if (merged == null) {
+                merged = new BitSet();
+                first.addTo(merged);
+            }
+            e.getValue().addTo(merged);
+        }
+        if (first == null) {
+            return new int[0];
+        }
+        return merged == null ? first.toArray() : merged.stream().toArray();
+    }
+
+    @Override
+    String[] keysOf(Task task) {
+        return Arrays.stream(tokenize(task.toString())).distinct().toArray(String[]::new);
+    }
+
+    @Override
+    void addKeys(int id, String[] tokens) {
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> new PostingList()).insert(id);
+        }
+    }
+
+    @Override
+    void removeKeys(int id, String[] tokens) {
+        for (String token : tokens) {
+            PostingList p = postings.get(token);
+            p.remove(id);
+            if (p.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dabot.task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A sorted, growable array of task ids, as kept by the {@link TaskIndex} implementations.
+ */
+final class PostingList {
+    private int[] ids = new int[4];
+    private int size;
+
+    /**
+     * Adds an id, keeping the list sorted.
+     *
+     * @param id id to add; must not already be present
+     */
+    void insert(int id) {
+        grow();
+        if (size > 0 && ids[size - 1] > id) {
+            int i = -Arrays.binarySearch(ids, 0, size, id) - 1;
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+        } else {
+            ids[size] = id; // the common case: a newly added task has the largest id
+        }
+        size++;
+    }
+
+    /**
+     * Removes an id if present.
+     *
+     * @param id id to remove
+     */
+    void remove(int id) {
+        int i = Arrays.binarySearch(ids, 0, size, id);
+        if (i >= 0) {
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the ids into {@code dest}.
+     *
+     * @param dest   array to copy into
+     * @param offset position of the first id in {@code dest}
+     */
+    void copyTo(int[] dest, int offset) {
+        System.arraycopy(ids, 0, dest, offset, size);
+    }
+
+    /**
+     * Sets the bit of every id in {@code bits}.
+     *
+     * @param bits set to add the ids to
+     */
+    void addTo(BitSet bits) {
+        for (int i = 0; i < size; i++) {
+            bits.set(ids[i]);
+        }
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void grow() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+    }
+
+    /**
+     * Returns the ids present in both sorted arrays.
+     *
+     * @param a sorted ids
+     * @param b sorted ids
+     * @return sorted intersection
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
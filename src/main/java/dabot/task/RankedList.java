@@ -0,0 +1,306 @@
+package dabot.task;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A list whose positional get, insert and remove all cost {@code O(log n)}.
+ * <p>
+ * Backed by an implicit treap: a binary tree kept in list order in which
+ * every node records the size of its subtree, so the node at a position is
+ * found by comparing against left-subtree sizes on the way down. Unlike an
+ * {@link java.util.ArrayList}, removing near the front does not shift the
+ * tail, so deleting many tasks from a large list stays fast.
+ * </p>
+ *
+ * @param <E> the type of elements
+ */
+public final class RankedList<E> extends AbstractList<E> {
+    private Node<E> root;
+    private int seed = 0x2545F491;
+
+    private static final class Node<E> {
+        private E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+
+    /**
+     * Creates an empty list.
+     */
+    public RankedList() {
+    }
+
+    /**
+     * Creates a list holding the elements of {@code initial}, in iteration order, in linear time.
+     *
+     * @param initial elements to copy
+     */
+    public RankedList(Collection<? extends E> initial) {
+        // build the treap left to right on a stack of its right spine (Cartesian tree construction)
+        ArrayDeque<Node<E>> spine = new ArrayDeque<>();
+        for (E e : initial) {
+            Node<E> node = new Node<>(e, nextPriority());
+            Node<E> last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+                last.update();
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        while (!spine.isEmpty()) {
+            root = spine.pop();
+            root.update();
+        }
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public E get(int index) {
+        return nodeAt(index).value;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Node<E> node = nodeAt(index);
+        E old = node.value;
+        node.value = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node<E> node = new Node<>(element, nextPriority());
+        if (index == size()) {
+            root = merge(root, node);
+        } else {
+            Node<E>[] parts = split(root, index);
+            root = merge(merge(parts[0], node), parts[1]);
+        }
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index);
+        Node<E>[] parts = split(root, index);
+        Node<E>[] rest = split(parts[1], 1);
+        root = merge(parts[0], rest[1]);
+        modCount++;
+        return rest[0].value;
+    }
+
+    /**
+     * Removes the elements at the given positions.
+     * <p>
+     * Few removals are done one by one; when they add up to more than one
+     * pass over the list, the list is rebuilt once without them instead.
+     * </p>
+     *
+     * @param sortedIndices positions to remove, ascending and without duplicates
+     */
+    public void removeAll(int[] sortedIndices) {
+        int n = size();
+        int k = sortedIndices.length;
+        if (k == 0) {
+            return;
+        }
+        if ((long) k * (32 - Integer.numberOfLeadingZeros(n)) < n) {
+            for (int i = k - 1; i >= 0; i--) {
+                remove(sortedIndices[i]);
+            }
+            return;
+        }
+        List<E> kept = new ArrayList<>(n - k);
+        int next = 0;
+        int index = 0;
+        for (E e : this) {
+            if (next < k && sortedIndices[next] == index) {
+                next++;
+            } else {
+                kept.add(e);
+            }
+            index++;
+        }
+        root = new RankedList<>(kept).root;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private Node<E> nodeAt(int index) {
+        checkIndex(index);
+        Node<E> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    /** Splits into the first {@code count} nodes and the rest. */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] split(Node<E> node, int count) {
+        if (node == null) {
+            return (Node<E>[]) new Node<?>[2];
+        }
+        int leftSize = sizeOf(node.left);
+        if (count <= leftSize) {
+            Node<E>[] parts = split(node.left, count);
+            node.left = parts[1];
+            node.update();
+            parts[1] = node;
+            return parts;
+        }
+        Node<E>[] parts = split(node.right, count - leftSize - 1);
+        node.right = parts[0];
+        node.update();
+        parts[0] = node;
+        return parts;
+    }
+
+    /** Concatenates two treaps. */
+    private static <E> Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    /** In-order traversal on an explicit stack, so iterating costs {@code O(n)} rather than {@code O(n log n)}. */
+    private final class Itr implements Iterator<E> {
+        private final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        Itr() {
+            seek(0);
+        }
+
+        /** Fills the stack so that the next node popped is the one at {@code index}. */
+        private void seek(int index) {
+            stack.clear();
+            Node<E> node = root;
+            while (node != null) {
+                int leftSize = sizeOf(node.left);
+                if (index <= leftSize) {
+                    stack.push(node);
+                    if (index == leftSize) {
+                        return;
+                    }
+                    node = node.left;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size();
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<E> node = stack.pop();
+            for (Node<E> n = node.right; n != null; n = n.left) {
+                stack.push(n);
+            }
+            lastReturned = cursor++;
+            return node.value;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            RankedList.this.remove(lastReturned);
+            cursor = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+            seek(cursor);
+        }
+    }
+}
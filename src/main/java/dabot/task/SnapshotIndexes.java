@@ -0,0 +1,247 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The keyword and date indexes of one {@link TaskSnapshot}, which never change once built.
+ * <p>
+ * Rebuilding the indexes for every version of a list would cost a full
+ * pass per change, and changing them in place would disturb readers of
+ * earlier versions. Instead, each version shares a frozen base index with
+ * the versions before it and adds a small overlay of its own: the base
+ * ids it no longer has, and the tasks added or replaced since the base was
+ * built, in id order. Queries answer from the base, drop what the overlay
+ * removed and check the overlay tasks directly. Once the overlay holds
+ * {@value #MAX_CHANGES} changes, the writer builds a new base.
+ * </p>
+ * <p>
+ * Ids come from the base indexes and follow list order, as in
+ * {@link TaskIndex}; tasks added later get ids past those of the base, and
+ * a replacement keeps the id of the task it replaces.
+ * </p>
+ */
+final class SnapshotIndexes {
+    /** Number of changes an overlay may hold before the base is rebuilt. */
+    static final int MAX_CHANGES = 1024;
+
+    private final KeywordIndex keywords;
+    private final DateIndex dates;
+    private final int[] droppedIds;
+    private final int[] extraIds;
+    private final Task[] extraTasks;
+    private final int nextId;
+
+    private SnapshotIndexes(KeywordIndex keywords, DateIndex dates, int[] droppedIds, int[] extraIds,
+            Task[] extraTasks, int nextId) {
+        this.keywords = keywords;
+        this.dates = dates;
+        this.droppedIds = droppedIds;
+        this.extraIds = extraIds;
+        this.extraTasks = extraTasks;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Builds new base indexes over {@code tasks}, with an empty overlay.
+     *
+     * @param tasks tasks in list order
+     * @return the indexes
+     */
+    static SnapshotIndexes build(List<Task> tasks) {
+        return new SnapshotIndexes(new KeywordIndex(tasks), new DateIndex(tasks), new int[0], new int[0],
+                new Task[0], tasks.size());
+    }
+
+    /**
+     * Returns whether the overlay has grown enough that the base should be rebuilt.
+     *
+     * @return {@code true} once more than {@link #MAX_CHANGES} changes are held
+     */
+    boolean isFull() {
+        return droppedIds.length + extraIds.length > MAX_CHANGES;
+    }
+
+    /**
+     * Returns the indexes of a version that appended {@code added} to this one.
+     *
+     * @param added tasks appended, in list order
+     * @return the new indexes; this one is unchanged
+     */
+    SnapshotIndexes added(Task[] added) {
+        int n = extraIds.length;
+        int[] ids = Arrays.copyOf(extraIds, n + added.length);
+        Task[] tasks = Arrays.copyOf(extraTasks, n + added.length);
+        for (int i = 0; i < added.length; i++) {
+            ids[n + i] = nextId + i;
+            tasks[n + i] = added[i];
+        }
+        return new SnapshotIndexes(keywords, dates, droppedIds, ids, tasks, nextId + added.length);
+    }
+
+    /**
+     * Returns the indexes of a version that removed {@code removed} from this one.
+     *
+     * @param removed tasks removed
+     * @return the new indexes; this one is unchanged
+     */
+    SnapshotIndexes removed(List<Task> removed) {
+        Map<Task, Integer> extras = extraPositions();
+        boolean[] isDropped = new boolean[extraIds.length];
+        int[] dropped = Arrays.copyOf(droppedIds, droppedIds.length + removed.size());
+        int n = droppedIds.length;
+        for (Task task : removed) {
+            Integer extra = extras.get(task);
+            if (extra != null) {
+                isDropped[extra] = true; // a replacement's base id is dropped already
+            } else {
+                dropped[n++] = keywords.idOf(task);
+            }
+        }
+        int kept = 0;
+        int[] ids = new int[extraIds.length];
+        Task[] tasks = new Task[extraIds.length];
+        for (int i = 0; i < extraIds.length; i++) {
+            if (!isDropped[i]) {
+                ids[kept] = extraIds[i];
+                tasks[kept++] = extraTasks[i];
+            }
+        }
+        dropped = Arrays.copyOf(dropped, n);
+        Arrays.sort(dropped);
+        return new SnapshotIndexes(keywords, dates, dropped, Arrays.copyOf(ids, kept), Arrays.copyOf(tasks, kept),
+                nextId);
+    }
+
+    /**
+     * Returns the indexes of a version that replaced each of {@code old} with the matching {@code replacements}.
+     *
+     * @param old          tasks replaced
+     * @param replacements the tasks now in their places
+     * @return the new indexes; this one is unchanged
+     */
+    SnapshotIndexes replaced(List<Task> old, List<Task> replacements) {
+        Map<Task, Integer> extras = extraPositions();
+        Task[] tasks = extraTasks.clone();
+        int[] baseIds = new int[old.size()];
+        int n = 0;
+        for (int i = 0; i < old.size(); i++) {
+            Integer extra = extras.get(old.get(i));
+            if (extra != null) {
+                tasks[extra] = replacements.get(i);
+            } else {
+                baseIds[n++] = keywords.idOf(old.get(i));
+            }
+        }
+        if (n == 0) {
+            return new SnapshotIndexes(keywords, dates, droppedIds, extraIds, tasks, nextId);
+        }
+        int[] dropped = Arrays.copyOf(droppedIds, droppedIds.length + n);
+        int[] ids = new int[extraIds.length + n];
+        Task[] merged = new Task[extraIds.length + n];
+        int e = 0;
+        int b = 0;
+        for (int i = 0; i < old.size(); i++) {
+            if (extras.containsKey(old.get(i))) {
+                continue;
+            }
+            // old is in list order, so the new base ids ascend and merge into the overlay in one pass
+            for (; e < extraIds.length && extraIds[e] < baseIds[b]; e++) {
+                ids[e + b] = extraIds[e];
+                merged[e + b] = tasks[e];
+            }
+            dropped[droppedIds.length + b] = baseIds[b];
+            ids[e + b] = baseIds[b];
+            merged[e + b] = replacements.get(i);
+            b++;
+        }
+        for (; e < extraIds.length; e++) {
+            ids[e + b] = extraIds[e];
+            merged[e + b] = tasks[e];
+        }
+        Arrays.sort(dropped);
+        return new SnapshotIndexes(keywords, dates, dropped, ids, merged, nextId);
+    }
+
+    /**
+     * Returns the tasks that, for every word of {@code queryWords}, have a word containing it,
+     * with the rules of {@link KeywordIndex#candidates(String[])}.
+     *
+     * @param queryWords lowercase query words; must not be empty
+     * @return candidate tasks in list order
+     */
+    List<Task> candidates(String[] queryWords) {
+        return merge(keywords.candidates(queryWords), task -> {
+            String text = task.toString().toLowerCase(Locale.ROOT);
+            for (String word : queryWords) {
+                if (!text.contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Returns deadlines due within {@code [from, to]} and events that overlap it, both ends inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> between(LocalDate from, LocalDate to) {
+        return merge(dates.between(from, to), task -> DateIndex.datesOf(task).overlaps(from, to));
+    }
+
+    /**
+     * Returns the tasks that are not done and are due or start between {@code from} and {@code to}, inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> pendingBetween(LocalDate from, LocalDate to) {
+        return merge(dates.pendingBetween(from, to), task -> DateIndex.datesOf(task).isPendingBetween(from, to));
+    }
+
+    /** Merges the base matches that are still present with the overlay tasks that pass {@code test}, by id. */
+    private List<Task> merge(List<Task> baseMatches, Predicate<Task> test) {
+        if (extraIds.length == 0 && droppedIds.length == 0) {
+            return baseMatches;
+        }
+        List<Task> out = new ArrayList<>(baseMatches.size());
+        int e = 0;
+        for (Task task : baseMatches) {
+            int id = keywords.idOf(task);
+            for (; e < extraIds.length && extraIds[e] < id; e++) {
+                if (test.test(extraTasks[e])) {
+                    out.add(extraTasks[e]);
+                }
+            }
+            if (Arrays.binarySearch(droppedIds, id) < 0) {
+                out.add(task);
+            }
+        }
+        for (; e < extraIds.length; e++) {
+            if (test.test(extraTasks[e])) {
+                out.add(extraTasks[e]);
+            }
+        }
+        return out;
+    }
+
+    /** Returns the position of each overlay task, by identity. */
+    private Map<Task, Integer> extraPositions() {
+        Map<Task, Integer> positions = new IdentityHashMap<>(extraTasks.length * 2);
+        for (int i = 0; i < extraTasks.length; i++) {
+            positions.put(extraTasks[i], i);
+        }
+        return positions;
+    }
+}
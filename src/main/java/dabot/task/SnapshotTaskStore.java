@@ -0,0 +1,198 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@link TaskStore} of a {@link ConcurrentTaskList}: a current {@link TaskSnapshot} that every change replaces.
+ * <p>
+ * Reads take whichever snapshot is current and never lock. A change builds
+ * the next snapshot together with its indexes and publishes both with one
+ * volatile write. Callers must make one change at a time.
+ * </p>
+ * <p>
+ * No indexes are built until the first query. From then on each change
+ * derives the next snapshot's indexes from those of the previous one, so
+ * queries keep working from indexes without rebuilding them per change.
+ * </p>
+ */
+final class SnapshotTaskStore implements TaskStore {
+    private final List<Task> view = new CurrentView();
+    private volatile TaskSnapshot current;
+    private volatile boolean isIndexed;
+
+    /**
+     * Creates a store holding {@code initial}.
+     *
+     * @param initial tasks in list order; copied
+     */
+    SnapshotTaskStore(List<Task> initial) {
+        Task[] array = initial.toArray(new Task[0]);
+        this.current = new TaskSnapshot(0, TaskSnapshot.chunksOf(array, array.length), array.length, null, this);
+    }
+
+    /** List view that reads whichever snapshot is current on each call. */
+    private final class CurrentView extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int index) {
+            return current.get(index);
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+    }
+
+    /**
+     * Returns the current version.
+     *
+     * @return the latest published snapshot
+     */
+    TaskSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Returns a read-only view of the tasks that always shows the current version.
+     *
+     * @return the view
+     */
+    List<Task> view() {
+        return view;
+    }
+
+    /** Records that a query has needed indexes, so that later changes keep them up to date. */
+    void indexesBuilt() {
+        isIndexed = true;
+    }
+
+    /**
+     * Appends {@code newTasks}.
+     *
+     * @param newTasks tasks to add, in order
+     */
+    void add(Task[] newTasks) {
+        TaskSnapshot old = current;
+        int size = old.size();
+        Task[][] chunks = old.chunks();
+        int needed = TaskSnapshot.chunkCount(size + newTasks.length);
+        if (needed > chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(needed, chunks.length + (chunks.length >> 1) + 1));
+        }
+        // slots past the old size are unseen by every published snapshot, so they can be filled in place
+        for (int i = 0; i < newTasks.length; i++) {
+            int index = size + i;
+            int c = index >>> TaskSnapshot.CHUNK_SHIFT;
+            if (chunks[c] == null) {
+                chunks[c] = new Task[TaskSnapshot.CHUNK_SIZE];
+            }
+            chunks[c][index & (TaskSnapshot.CHUNK_SIZE - 1)] = newTasks[i];
+        }
+        publish(chunks, size + newTasks.length, indexes -> indexes.added(newTasks));
+    }
+
+    @Override
+    public void removeAll(int[] sortedIndices) {
+        TaskSnapshot old = current;
+        Task[] kept = new Task[old.size() - sortedIndices.length];
+        List<Task> removed = new ArrayList<>(sortedIndices.length);
+        int n = 0;
+        int next = 0;
+        for (int i = 0; i < old.size(); i++) {
+            if (next < sortedIndices.length && sortedIndices[next] == i) {
+                removed.add(old.get(i));
+                next++;
+            } else {
+                kept[n++] = old.get(i);
+            }
+        }
+        publish(TaskSnapshot.chunksOf(kept, kept.length), kept.length, indexes -> indexes.removed(removed));
+    }
+
+    @Override
+    public Task setDone(int index, boolean isDone) {
+        return setDoneAll(new int[] {index}, isDone).get(0);
+    }
+
+    /**
+     * Sets the status of the tasks at {@code indices} in one change.
+     * <p>
+     * The tasks are replaced by changed copies, so that no task object a
+     * reader may hold ever changes; only the chunks holding them are copied.
+     * </p>
+     *
+     * @param indices positions of the tasks, ascending
+     * @param isDone  new status
+     * @return the replacement tasks, in list order
+     */
+    List<Task> setDoneAll(int[] indices, boolean isDone) {
+        TaskSnapshot old = current;
+        Task[][] chunks = old.chunks().clone();
+        boolean[] isCopied = new boolean[chunks.length];
+        List<Task> replaced = new ArrayList<>(indices.length);
+        List<Task> changed = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            int c = index >>> TaskSnapshot.CHUNK_SHIFT;
+            if (!isCopied[c]) {
+                chunks[c] = chunks[c].clone(); // only the chunks holding marked tasks are copied
+                isCopied[c] = true;
+            }
+            int slot = index & (TaskSnapshot.CHUNK_SIZE - 1);
+            replaced.add(chunks[c][slot]);
+            chunks[c][slot] = chunks[c][slot].withDone(isDone);
+            changed.add(chunks[c][slot]);
+        }
+        publish(chunks, old.size(), indexes -> indexes.replaced(replaced, changed));
+        return changed;
+    }
+
+    /**
+     * Makes the first {@code size} tasks of {@code chunks} the current version.
+     * <p>
+     * Its indexes are {@code change} applied to those of the previous version,
+     * or rebuilt once the changes since the last build pile up.
+     * </p>
+     */
+    private void publish(Task[][] chunks, int size, UnaryOperator<SnapshotIndexes> change) {
+        TaskSnapshot old = current;
+        SnapshotIndexes indexes = old.builtIndexes();
+        if (indexes == null && isIndexed) {
+            indexes = old.indexes(); // a reader built indexes for a version that was already replaced
+        }
+        if (indexes != null) {
+            indexes = change.apply(indexes);
+        }
+        TaskSnapshot next = new TaskSnapshot(old.getVersion() + 1, chunks, size,
+                indexes == null || indexes.isFull() ? null : indexes, this);
+        if (indexes != null && indexes.isFull()) {
+            next.indexes(); // rebuilt here rather than by the next reader
+        }
+        current = next;
+    }
+
+    @Override
+    public int[] doneIndices() {
+        return current.doneIndices();
+    }
+
+    @Override
+    public List<Task> between(LocalDate from, LocalDate to) {
+        return current.tasksBetween(from, to);
+    }
+
+    @Override
+    public List<Task> pendingBetween(LocalDate from, LocalDate to) {
+        return current.indexes().pendingBetween(from, to);
+    }
+
+    @Override
+    public List<Task> candidates(String[] queryWords) {
+        return current.indexes().candidates(queryWords);
+    }
+}
@@ -0,0 +1,135 @@
+package dabot.task;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lossy pool that lets tasks share equal description and date strings.
+ * <p>
+ * Task files repeat the same descriptions ("standup", "pay rent") and date
+ * strings many times, but every load or parse creates a fresh copy of each.
+ * The task constructors pass their strings through {@link #shared()} so
+ * that equal strings end up as one instance and the copies can be collected.
+ * Rows decoded from a {@link ColumnarTaskList} skip the pool, as they are
+ * short-lived copies that would only evict useful entries.
+ * </p>
+ * <p>
+ * The pool is a fixed number of slots indexed by hash, each holding a weak
+ * reference: a string only stays pooled while some task still uses it, and
+ * when two strings share a slot the newer one simply replaces the older,
+ * so the pool never grows and never needs a lock. Set its size with
+ * {@code -Ddabot.stringPool=SLOTS}; {@code 0} turns pooling off.
+ * </p>
+ */
+public final class StringPool {
+    /** Number of slots of the shared pool unless {@code dabot.stringPool} says otherwise. */
+    public static final int DEFAULT_SLOTS = 1 << 14;
+
+    private static final StringPool SHARED = new StringPool(Integer.getInteger("dabot.stringPool", DEFAULT_SLOTS));
+
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final int mask;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Creates a pool with the given number of slots, rounded up to a power of two.
+     *
+     * @param slots number of slots; {@code 0} or less makes {@link #intern} return its argument unchanged
+     */
+    public StringPool(int slots) {
+        int size = slots <= 0 ? 0 : Integer.highestOneBit(Math.min(slots - 1, 1 << 29) << 1 | 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the pool used by {@link Todo}, {@link Deadline} and {@link Event}.
+     *
+     * @return the shared pool
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a pooled string equal to {@code s}, pooling {@code s} itself if there is none.
+     *
+     * @param s string to look up; may be {@code null}
+     * @return an equal string, or {@code null} if {@code s} is {@code null}
+     */
+    public String intern(String s) {
+        if (s == null || mask < 0) {
+            return s;
+        }
+        lookups.increment();
+        int h = s.hashCode();
+        int i = (h ^ (h >>> 16)) & mask;
+        WeakReference<String> ref = slots.get(i);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled != null && pooled.equals(s)) {
+            if (pooled != s) { // a copy, not a task handing back its own string
+                duplicates.increment();
+                savedBytes.add(estimateBytes(s));
+            }
+            return pooled;
+        }
+        slots.set(i, new WeakReference<>(s));
+        return s;
+    }
+
+    /**
+     * Returns the approximate heap taken by one string, assuming a 64-bit JVM with compressed pointers.
+     * Strings outside Latin-1 take two bytes per character.
+     */
+    static long estimateBytes(String s) {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) < 256;
+        }
+        long chars = latin1 ? s.length() : 2L * s.length();
+        return 24 + ((16 + chars + 7) & ~7L); // String object, then its byte array
+    }
+
+    /**
+     * Returns how many looked-up strings were copies of a pooled one, since the pool was created.
+     *
+     * @return number of duplicates dropped
+     */
+    public long duplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Returns the approximate heap taken by the duplicates dropped since the pool was created.
+     * <p>
+     * A running total: it does not go down when tasks sharing a string are deleted.
+     * </p>
+     *
+     * @return estimated bytes of dropped copies
+     */
+    public long savedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the pool since it was created, e.g. {@code String pool since start:
+     * 900 of 1000 task strings were duplicates, 0.1 MB of copies dropped (16384 slots)}.
+     * <p>
+     * The counts only grow: they say how many copies were not kept when tasks
+     * were created, not how much memory equal strings save right now.
+     * </p>
+     *
+     * @return the summary
+     */
+    public String report() {
+        if (mask < 0) {
+            return "String pool: off";
+        }
+        return String.format("String pool since start: %d of %d task strings were duplicates,"
+                + " %.1f MB of copies dropped (%d slots)", duplicates(), lookups.sum(), savedBytes() / 1e6,
+                slots.length());
+    }
+}
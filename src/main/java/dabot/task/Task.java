@@ -1,22 +1,45 @@
 package dabot.task;
 
+import java.time.format.DateTimeFormatter;
+
 import dabot.main.DabotException;
 
 /**
  * Base class for all tasks (Todo, Deadline, Event).
  * Stores a description and completion status.
+ * <p>
+ * The display string is built on first use and kept until the status
+ * changes, so listing or searching a large list formats each task once.
+ * </p>
  */
 public abstract class Task {
+    /** Format of parsed dates in display strings, e.g. {@code Dec 02 2019}. */
+    static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    private static final int MAX_FIELDS = 5;
+
     protected String description;
     protected boolean isDone;
+    private String display;
 
     /**
      * Creates a new task with the given description.
+     * Equal descriptions are shared between tasks through {@link StringPool#shared()}.
      *
      * @param description task description
      */
     public Task(String description) {
-        this.description = description;
+        this(description, StringPool.shared());
+    }
+
+    /**
+     * Creates a new task whose description is looked up in {@code pool}.
+     *
+     * @param description task description
+     * @param pool        pool to share the description through
+     */
+    Task(String description, StringPool pool) {
+        this.description = pool.intern(description);
         this.isDone = false;
     }
 
@@ -32,15 +55,59 @@ public abstract class Task {
     /** Marks this task as done. */
     public void markAsDone() {
         isDone = true;
+        display = null;
     }
 
     /** Marks this task as not done. */
     public void markAsUndone() {
         isDone = false;
+        display = null;
     }
 
+    /**
+     * Returns a copy of this task with the given status, leaving this task unchanged.
+     * <p>
+     * Lets {@link ConcurrentTaskList} mark tasks without changing ones that
+     * readers of an older snapshot may still be looking at.
+     * </p>
+     *
+     * @param isDone status of the copy
+     * @return the copy
+     */
+    Task withDone(boolean isDone) {
+        Task copy = copy();
+        copy.isDone = isDone;
+        return copy;
+    }
+
+    /**
+     * Returns a new task with the same description and dates as this one, not yet done.
+     *
+     * @return the copy
+     */
+    abstract Task copy();
+
+    /**
+     * Returns the display string of this task, building it with {@link #render()} on first use.
+     *
+     * @return the string representation of this task
+     */
     @Override
-    public String toString() {
+    public final String toString() {
+        String s = display;
+        if (s == null) {
+            s = render();
+            display = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the display string of this task; subclasses add their type marker and dates.
+     *
+     * @return status icon and description
+     */
+    protected String render() {
         return "[" + this.getStatusIcon() + "] " + this.description;
     }
 
@@ -71,39 +138,73 @@ public abstract class Task {
      * @throws DabotException if the line format is invalid
      */
     public static Task decodeString(String line) throws DabotException {
-        if (line == null || line.trim().isEmpty()) {
+        return decode(line);
+    }
+
+    /**
+     * Decodes an encoded task from any character sequence in a single pass.
+     * <p>
+     * Fields are separated by {@code " | "} with the same rules as
+     * {@code line.split(" \\| ")}: empty fields at the end are ignored and fields
+     * after the fifth are dropped. Only the description and date fields are
+     * copied into new strings.
+     * </p>
+     *
+     * @param line encoded task, e.g. a line of the storage file
+     * @return decoded Task
+     * @throws DabotException if the line format is invalid
+     */
+    public static Task decode(CharSequence line) throws DabotException {
+        return decode(line, StringPool.shared());
+    }
+
+    /**
+     * Decodes an encoded task, sharing its strings through {@code pool}.
+     *
+     * @param line encoded task
+     * @param pool pool for the description and date strings
+     * @return decoded Task
+     * @throws DabotException if the line format is invalid
+     */
+    static Task decode(CharSequence line, StringPool pool) throws DabotException {
+        if (line == null || isBlank(line)) {
             throw new DabotException("Invalid task line!");
         }
 
-        String[] parts = line.split(" \\| ");
-
-        if (parts.length < 3) {
+        // start/end offsets of the first five fields, and how many fields count after dropping trailing empties
+        int[] bounds = new int[MAX_FIELDS * 2];
+        int fieldCount = scanFields(line, bounds);
+        if (fieldCount < 3) {
             throw new DabotException("Invalid task line: " + line);
         }
 
-        String type = parts[0];
-        boolean isDone = parts[1].equals("1");
-        String desc = parts[2];
+        boolean isTypeOneChar = bounds[1] - bounds[0] == 1;
+        char type = isTypeOneChar ? line.charAt(bounds[0]) : '?';
+        boolean isDone = bounds[3] - bounds[2] == 1 && line.charAt(bounds[2]) == '1';
+        String desc = field(line, bounds, 2);
 
         Task task;
         switch (type) {
-        case "T":
-            task = new Todo(desc);
+        case 'T':
+            task = new Todo(desc, pool);
             break;
-        case "D":
-            if (parts.length < 4) {
+        case 'D':
+            if (fieldCount < 4) {
                 throw new DabotException("Deadline missing /by parameter: " + line);
             }
-            task = new Deadline(desc, parts[3]);
+            String by = field(line, bounds, 3);
+            task = new Deadline(desc, by, IsoDates.parseOrNull(by), pool);
             break;
-        case "E":
-            if (parts.length < 5) {
+        case 'E':
+            if (fieldCount < 5) {
                 throw new DabotException("Event missing /from or /to: " + line);
             }
-            task = new Event(desc, parts[3], parts[4]);
+            String start = field(line, bounds, 3);
+            String end = field(line, bounds, 4);
+            task = new Event(desc, start, end, IsoDates.parseOrNull(start), IsoDates.parseOrNull(end), pool);
             break;
         default:
-            throw new DabotException("Unknown task type: " + type);
+            throw new DabotException("Unknown task type: " + field(line, bounds, 0));
         }
         if (isDone) {
             task.markAsDone();
@@ -111,4 +212,49 @@ public abstract class Task {
 
         return task;
     }
+
+    /**
+     * Records the bounds of up to {@link #MAX_FIELDS} fields of {@code line} in {@code bounds}.
+     *
+     * @return number of fields, not counting empty fields at the end
+     */
+    private static int scanFields(CharSequence line, int[] bounds) {
+        int n = line.length();
+        int field = 0;
+        int fieldStart = 0;
+        int fieldCount = 0;
+        int i = 0;
+        while (i <= n) {
+            boolean isDelimiter = i + 2 < n && line.charAt(i) == ' ' && line.charAt(i + 1) == '|'
+                    && line.charAt(i + 2) == ' ';
+            if (!isDelimiter && i < n) {
+                i++;
+                continue;
+            }
+            if (field < MAX_FIELDS) {
+                bounds[field * 2] = fieldStart;
+                bounds[field * 2 + 1] = i;
+            }
+            field++;
+            if (i > fieldStart) {
+                fieldCount = field;
+            }
+            fieldStart = i + 3;
+            i += 3;
+        }
+        return fieldCount;
+    }
+
+    private static String field(CharSequence line, int[] bounds, int index) {
+        return line.subSequence(bounds[index * 2], bounds[index * 2 + 1]).toString();
+    }
+
+    private static boolean isBlank(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') { // same rule as String.trim()
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,173 @@
+package dabot.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Base class for secondary indexes over a {@link TaskList} that follow it as a {@link TaskListListener}.
+ * <p>
+ * Each task gets an id when it is indexed. Tasks are only ever appended, so
+ * ids grow in list order: subclasses keep {@link PostingList}s of ids and
+ * turn them back into tasks with {@link #tasksFor(int[])}, and results come
+ * out in list order without sorting tasks. An insert anywhere but the end
+ * invalidates the index, and the owner rebuilds it on the next query.
+ * </p>
+ *
+ * @param <K> what a task is indexed under, e.g. its words; compared with {@link Objects#deepEquals}
+ */
+abstract class TaskIndex<K> implements TaskListListener {
+    private final IdentityHashMap<Task, Entry<K>> entries = new IdentityHashMap<>();
+    private final Map<Integer, Task> tasksById = new HashMap<>();
+    private int nextId;
+    private boolean isValid = true;
+
+    /** The id of one task and the keys it is currently indexed under. */
+    private static final class Entry<K> {
+        private final int id;
+        private K keys;
+
+        Entry(int id, K keys) {
+            this.id = id;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Indexes {@code tasks} in list order. Subclasses call this once their own fields are set up.
+     *
+     * @param tasks tasks to index
+     */
+    final void indexAll(List<Task> tasks) {
+        for (Task t : tasks) {
+            index(t);
+        }
+    }
+
+    /**
+     * Returns whether the index still reflects the list; it is invalidated by inserts in the middle.
+     *
+     * @return {@code false} if the index must be rebuilt
+     */
+    final boolean isValid() {
+        return isValid;
+    }
+
+    /**
+     * Returns the keys {@code task} should currently be indexed under.
+     *
+     * @param task task to inspect
+     * @return its keys
+     */
+    abstract K keysOf(Task task);
+
+    /**
+     * Records that the task with {@code id} is indexed under {@code keys}.
+     *
+     * @param id   task id
+     * @param keys keys from {@link #keysOf(Task)}
+     */
+    abstract void addKeys(int id, K keys);
+
+    /**
+     * Undoes {@link #addKeys(int, Object)}.
+     *
+     * @param id   task id
+     * @param keys the keys previously added for {@code id}
+     */
+    abstract void removeKeys(int id, K keys);
+
+    /**
+     * Returns the tasks with the given ids.
+     *
+     * @param sortedIds ids in ascending order
+     * @return the tasks, in list order
+     */
+    final List<Task> tasksFor(int[] sortedIds) {
+        List<Task> out = new ArrayList<>(sortedIds.length);
+        for (int id : sortedIds) {
+            out.add(tasksById.get(id));
+        }
+        return out;
+    }
+
+    /**
+     * Returns the id of {@code task}.
+     *
+     * @param task task to look up, by identity
+     * @return its id, or {@code -1} if it is not indexed
+     */
+    final int idOf(Task task) {
+        Entry<K> entry = entries.get(task);
+        return entry == null ? -1 : entry.id;
+    }
+
+    private void index(Task task) {
+        Entry<K> entry = new Entry<>(nextId++, keysOf(task));
+        entries.put(task, entry);
+        tasksById.put(entry.id, task);
+        addKeys(entry.id, entry.keys);
+    }
+
+    @Override
+    public final void taskAdded(int index, Task task) {
+        if (index != tasksById.size()) {
+            isValid = false; // inserted before existing tasks, so ids no longer follow list order
+            return;
+        }
+        index(task);
+    }
+
+    @Override
+    public final void taskRemoved(int index, Task task) {
+        Entry<K> entry = entries.remove(task);
+        if (entry != null) {
+            tasksById.remove(entry.id);
+            removeKeys(entry.id, entry.keys);
+        }
+    }
+
+    /**
+     * Moves the entry of {@code old} to {@code replacement}, which takes its place in the list.
+     * <p>
+     * Used where a change replaces a task with a changed copy instead of
+     * changing it in place; the replacement keeps the id of {@code old}.
+     * </p>
+     *
+     * @param old         task being replaced
+     * @param replacement the task now at its position
+     */
+    final void taskReplaced(Task old, Task replacement) {
+        Entry<K> entry = entries.remove(old);
+        if (entry == null) {
+            isValid = false;
+            return;
+        }
+        entries.put(replacement, entry);
+        tasksById.put(entry.id, replacement);
+        K keys = keysOf(replacement);
+        if (!Objects.deepEquals(entry.keys, keys)) {
+            removeKeys(entry.id, entry.keys);
+            entry.keys = keys;
+            addKeys(entry.id, keys);
+        }
+    }
+
+    @Override
+    public final void taskUpdated(int index, Task task) {
+        Entry<K> entry = entries.get(task);
+        if (entry == null) {
+            isValid = false; // replaced by a different task object
+            return;
+        }
+        K keys = keysOf(task);
+        if (!Objects.deepEquals(entry.keys, keys)) {
+            removeKeys(entry.id, entry.keys);
+            entry.keys = keys;
+            addKeys(entry.id, keys);
+        }
+    }
+}
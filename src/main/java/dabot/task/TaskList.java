@@ -15,13 +15,15 @@ import dabot.main.DabotException;
  * </p>
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final List<Task> tasks;
+    private final List<TaskListListener> listeners = new ArrayList<>();
+    private final TaskStore store;
 
     /**
      * Creates an empty {@code TaskList}.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>(100);
+        this(new RankedList<>(), false);
     }
 
     /**
@@ -30,7 +32,63 @@ public class TaskList {
      * @param initial list of tasks to populate
      */
     public TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial);
+        this(initial, true);
+    }
+
+    private TaskList(List<Task> initial, boolean isCopied) {
+        this.tasks = isCopied ? new RankedList<>(initial) : initial;
+        this.store = TaskStore.over(tasks, listeners);
+    }
+
+    /**
+     * Creates a {@code TaskList} whose tasks and queries are kept by {@code store}.
+     * <p>
+     * For subclasses that hold their tasks some other way, like {@link ConcurrentTaskList}.
+     * </p>
+     *
+     * @param tasks read-only view of the tasks of {@code store}
+     * @param store the store
+     */
+    TaskList(List<Task> tasks, TaskStore store) {
+        this.tasks = tasks;
+        this.store = store;
+    }
+
+    /**
+     * Creates a {@code TaskList} that uses {@code backing} directly instead of copying it.
+     * <p>
+     * Lets a lazily decoded list from {@link dabot.io.Storage#load()} stay lazy.
+     * Deleting from the front of a large list is only cheap if {@code backing}
+     * is a {@link RankedList}, as the eagerly loaded lists are. Over a
+     * {@link ColumnarTaskList}, queries scan its columns instead of building
+     * indexes that would hold every task as an object.
+     * The caller must hand over ownership: {@code backing} must be mutable and
+     * must not be changed except through the returned {@code TaskList}.
+     * </p>
+     *
+     * @param backing list of tasks to use as storage
+     * @return a task list over {@code backing}
+     */
+    public static TaskList wrap(List<Task> backing) {
+        return new TaskList(backing, false);
+    }
+
+    /**
+     * Registers a listener that is notified of every subsequent change.
+     *
+     * @param listener listener to notify
+     */
+    public void addListener(TaskListListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the registered listeners, for subclasses that make their own changes.
+     *
+     * @return the listeners, in registration order
+     */
+    List<TaskListListener> listeners() {
+        return listeners;
     }
 
     /**
@@ -47,7 +105,7 @@ public class TaskList {
      *
      * @return list of tasks
      */
-    public ArrayList<Task> asList() {
+    public List<Task> asList() {
         return tasks;
     }
 
@@ -70,6 +128,9 @@ public class TaskList {
     public void add(Task... newTasks) {
         for (Task t : newTasks) {
             tasks.add(t);
+            for (TaskListListener l : listeners) {
+                l.taskAdded(tasks.size() - 1, t);
+            }
         }
     }
 
@@ -83,7 +144,11 @@ public class TaskList {
         if (index < 0 || index >= tasks.size()) {
             throw new DabotException("Task number " + (index + 1) + " is out of range.");
         }
-        return tasks.remove(index);
+        Task removed = tasks.remove(index);
+        for (TaskListListener l : listeners) {
+            l.taskRemoved(index, removed);
+        }
+        return removed;
     }
 
     /**
@@ -95,7 +160,10 @@ public class TaskList {
         if (index < 0 || index >= tasks.size()) {
             throw new DabotException("Task number " + (index + 1) + " is out of range.");
         }
-        tasks.get(index).markAsDone();
+        Task task = store.setDone(index, true);
+        for (TaskListListener l : listeners) {
+            l.taskUpdated(index, task);
+        }
     }
 
     /**
@@ -107,44 +175,139 @@ public class TaskList {
         if (index < 0 || index >= tasks.size()) {
             throw new DabotException("Task number " + (index + 1) + " is out of range.");
         }
-        tasks.get(index).markAsUndone();
+        Task task = store.setDone(index, false);
+        for (TaskListListener l : listeners) {
+            l.taskUpdated(index, task);
+        }
+    }
+
+    /**
+     * Deletes the tasks at the given indices in one pass.
+     * <p>
+     * Listeners see one removal per task, from the highest index down, so each
+     * reported index is still valid when it is applied in order.
+     * </p>
+     *
+     * @param indices indices of the tasks to delete, ascending and without duplicates
+     * @return the deleted tasks, in list order
+     */
+    public List<Task> deleteAll(int[] indices) throws DabotException {
+        checkIndices(indices);
+        List<Task> removed = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            removed.add(tasks.get(index));
+        }
+        store.removeAll(indices);
+        for (int i = indices.length - 1; i >= 0; i--) {
+            for (TaskListListener l : listeners) {
+                l.taskRemoved(indices[i], removed.get(i));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Marks the tasks at the given indices as done.
+     *
+     * @param indices indices of the tasks, ascending
+     * @return the marked tasks, in list order
+     */
+    public List<Task> markAll(int[] indices) throws DabotException {
+        return setDoneAll(indices, true);
     }
 
     /**
-     * Returns tasks that occur on the given date.
+     * Marks the tasks at the given indices as not done.
+     *
+     * @param indices indices of the tasks, ascending
+     * @return the unmarked tasks, in list order
+     */
+    public List<Task> unmarkAll(int[] indices) throws DabotException {
+        return setDoneAll(indices, false);
+    }
+
+    private List<Task> setDoneAll(int[] indices, boolean isDone) throws DabotException {
+        checkIndices(indices);
+        List<Task> changed = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            Task task = store.setDone(index, isDone);
+            for (TaskListListener l : listeners) {
+                l.taskUpdated(index, task);
+            }
+            changed.add(task);
+        }
+        return changed;
+    }
+
+    private void checkIndices(int[] indices) throws DabotException {
+        for (int index : indices) {
+            if (index < 0 || index >= tasks.size()) {
+                throw new DabotException("Task number " + (index + 1) + " is out of range.");
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of all tasks that are marked done.
+     *
+     * @return ascending indices of done tasks
+     */
+    public int[] doneIndices() {
+        return store.doneIndices();
+    }
+
+    /**
+     * Returns tasks that occur on the given date: deadlines due that day and events running over it.
      *
      * @param date date to filter by
      * @return list of matching tasks
      */
     public List<Task> tasksOn(LocalDate date) {
-        List<Task> output = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task instanceof Deadline) {
-                Deadline deadline = (Deadline) task;
-                if (deadline.byDate != null && deadline.byDate.equals(date)) {
-                    output.add(task);
-                }
-            } else if (task instanceof Event) {
-                Event event = (Event) task;
-                if ((event.startTime != null && event.startTime.equals(date))
-                        || (event.endTime != null && event.endTime.equals(date))) {
-                    output.add(task);
-                }
-            }
-        }
-        return output;
+        return tasksBetween(date, date);
+    }
+
+    /**
+     * Returns deadlines due within {@code [from, to]} and events that overlap it, both ends inclusive.
+     * <p>
+     * Answered from a date index that is built on first use and kept up to date as tasks change.
+     * </p>
+     *
+     * @param from first day of the range
+     * @param to   last day of the range; not before {@code from}
+     * @return list of matching tasks
+     */
+    public List<Task> tasksBetween(LocalDate from, LocalDate to) {
+        return store.between(from, to);
     }
 
     /**
      * Finds all tasks that contain the given keyword.
+     * <p>
+     * A task matches if its display text contains {@code keyword}, ignoring
+     * case. Keywords made of words are first narrowed down through an
+     * inverted index that is kept up to date as tasks change; others, like
+     * {@code [D]}, are checked against every task.
+     * </p>
      *
      * @param keyword keyword to search for
      * @return list of matching tasks
      */
     public ArrayList<Task> find(String keyword) {
+        String[] words = KeywordIndex.queryWords(keyword);
+        return matching(words == null ? tasks : store.candidates(words), keyword);
+    }
+
+    /**
+     * Returns the tasks among {@code candidates} whose display text contains {@code keyword}, ignoring case.
+     *
+     * @param candidates tasks to check, in list order
+     * @param keyword    keyword to search for
+     * @return the matching tasks
+     */
+    static ArrayList<Task> matching(Iterable<Task> candidates, String keyword) {
         ArrayList<Task> output = new java.util.ArrayList<>();
         String keywordLowerCase = keyword.toLowerCase();
-        for (Task t : tasks) {
+        for (Task t : candidates) {
             if (t.toString().toLowerCase().contains(keywordLowerCase)) {
                 output.add(t);
             }
@@ -155,33 +318,23 @@ public class TaskList {
     /**
      * Returns tasks that are NOT done and due/starting within the next {@code days} (inclusive).
      * Only considers tasks with parseable dates (Deadline.byDate, Event.startTime).
+     * Done tasks are not in the reminder index at all, so they cost nothing here.
      *
      * @param days number of days from today to check
      * @return list of upcoming undone tasks
      */
     public ArrayList<Task> remindersWithinDays(int days) {
-        ArrayList<Task> out = new ArrayList<>();
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate end = today.plusDays(days);
-
-        for (Task t : tasks) {
-            if (t.isDone) {
-                continue; // only remind for undone tasks
-            }
-            if (t instanceof Deadline) {
-                Deadline d = (Deadline) t;
-                if (d.byDate != null && !d.byDate.isBefore(today) && !d.byDate.isAfter(end)) {
-                    out.add(t);
-                }
-            } else if (t instanceof Event) {
-                Event e = (Event) t;
-                if (e.startTime != null && !e.startTime.isBefore(today) && !e.startTime.isAfter(end)) {
-                    out.add(t);
-                }
-            }
-        }
-        return out;
+        return remindersWithinDays(days, LocalDate.now());
     }
 
-
+    /**
+     * Returns tasks that are NOT done and due/starting between {@code today} and {@code days} days later (inclusive).
+     *
+     * @param days  number of days from {@code today} to check
+     * @param today first day of the range
+     * @return list of upcoming undone tasks
+     */
+    ArrayList<Task> remindersWithinDays(int days, LocalDate today) {
+        return new ArrayList<>(store.pendingBetween(today, today.plusDays(days)));
+    }
 }
@@ -0,0 +1,35 @@
+package dabot.task;
+
+/**
+ * Receives a notification for every change made to a {@link TaskList}.
+ * <p>
+ * Lets components such as journaled storage follow individual mutations
+ * instead of re-reading the whole list after each command.
+ * </p>
+ */
+public interface TaskListListener {
+
+    /**
+     * Called after a task has been inserted.
+     *
+     * @param index position the task was inserted at
+     * @param task  the inserted task
+     */
+    void taskAdded(int index, Task task);
+
+    /**
+     * Called after a task has been removed.
+     *
+     * @param index position the task was removed from
+     * @param task  the removed task
+     */
+    void taskRemoved(int index, Task task);
+
+    /**
+     * Called after a task has been changed in place (e.g. marked or unmarked).
+     *
+     * @param index position of the changed task
+     * @param task  the changed task
+     */
+    void taskUpdated(int index, Task task);
+}
@@ -0,0 +1,224 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable version of a {@link ConcurrentTaskList}.
+ * <p>
+ * A snapshot never changes once published, so any number of threads can
+ * read it without locking. Queries use {@link SnapshotIndexes} that belong
+ * to the snapshot: the writer derives them from those of the previous
+ * version, so they cost little per change, and a snapshot without any
+ * builds them on the first query that needs them; if two readers race,
+ * both build them and either result is kept, since they are equal.
+ * </p>
+ * <p>
+ * The tasks are stored in chunks of {@value #CHUNK_SIZE}, and snapshots of
+ * the same list share every chunk they have in common: a later version that
+ * appended tasks writes past the end of the earlier ones, which they never
+ * read, and one that replaced tasks copies only the chunks holding them.
+ * </p>
+ */
+public final class TaskSnapshot {
+    /** Number of tasks per chunk. */
+    static final int CHUNK_SIZE = 1 << 10;
+    /** Shift from a task's index to its chunk. */
+    static final int CHUNK_SHIFT = 10;
+
+    private final long version;
+    private final Task[][] chunks;
+    private final int size;
+    private final SnapshotTaskStore store;
+    private final List<Task> view;
+    private volatile SnapshotIndexes indexes;
+
+    /**
+     * Creates a snapshot of the first {@code size} tasks held in {@code chunks}.
+     *
+     * @param version version number; later versions of a list have larger numbers
+     * @param chunks  backing chunks of {@link #CHUNK_SIZE} tasks; their first {@code size} slots
+     *                must never change again
+     * @param size    number of tasks in this version
+     * @param indexes indexes of exactly these tasks, or {@code null} to build them when first needed
+     * @param store   the store this is a version of, told when indexes are first built
+     */
+    TaskSnapshot(long version, Task[][] chunks, int size, SnapshotIndexes indexes, SnapshotTaskStore store) {
+        this.version = version;
+        this.chunks = chunks;
+        this.size = size;
+        this.indexes = indexes;
+        this.store = store;
+        this.view = new View();
+    }
+
+    /**
+     * Splits {@code tasks} into new chunks.
+     *
+     * @param tasks tasks in list order
+     * @param count number of leading tasks to take
+     * @return chunks holding the first {@code count} tasks
+     */
+    static Task[][] chunksOf(Task[] tasks, int count) {
+        Task[][] chunks = new Task[chunkCount(count)][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new Task[CHUNK_SIZE];
+            int from = c << CHUNK_SHIFT;
+            System.arraycopy(tasks, from, chunks[c], 0, Math.min(CHUNK_SIZE, count - from));
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns how many chunks hold {@code size} tasks.
+     *
+     * @param size number of tasks
+     * @return number of chunks needed
+     */
+    static int chunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+    }
+
+    /** Read-only list view of the tasks of this snapshot. */
+    private final class View extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int index) {
+            return TaskSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Returns the version number of this snapshot.
+     *
+     * @return version number, starting at 0 and increasing with each change to the list
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the backing chunks; slots from {@link #size()} on belong to later versions.
+     *
+     * @return the backing chunks, not to be changed below {@link #size()}
+     */
+    Task[][] chunks() {
+        return chunks;
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return size of this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task at a given index.
+     *
+     * @param index index of the task
+     * @return task at that index
+     */
+    public Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return chunks[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Returns the tasks as an unmodifiable list.
+     *
+     * @return list of tasks, fixed for the lifetime of this snapshot
+     */
+    public List<Task> asList() {
+        return view;
+    }
+
+    /**
+     * Returns the indices of all tasks that are marked done.
+     *
+     * @return ascending indices of done tasks
+     */
+    public int[] doneIndices() {
+        int[] out = new int[16];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (get(i).isDone) {
+                if (n == out.length) {
+                    out = Arrays.copyOf(out, n * 2);
+                }
+                out[n++] = i;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Returns deadlines due within {@code [from, to]} and events that overlap it, both ends inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range; not before {@code from}
+     * @return list of matching tasks
+     * @see TaskList#tasksBetween(LocalDate, LocalDate)
+     */
+    public List<Task> tasksBetween(LocalDate from, LocalDate to) {
+        return indexes().between(from, to);
+    }
+
+    /**
+     * Finds all tasks that contain the given keyword, with the same rules as {@link TaskList#find(String)}.
+     *
+     * @param keyword keyword to search for
+     * @return list of matching tasks
+     */
+    public ArrayList<Task> find(String keyword) {
+        String[] words = KeywordIndex.queryWords(keyword);
+        return TaskList.matching(words == null ? view : indexes().candidates(words), keyword);
+    }
+
+    /**
+     * Returns tasks that are NOT done and due/starting between {@code today} and {@code days} days later (inclusive).
+     *
+     * @param days  number of days from {@code today} to check
+     * @param today first day of the range
+     * @return list of upcoming undone tasks
+     */
+    public ArrayList<Task> remindersWithinDays(int days, LocalDate today) {
+        return new ArrayList<>(indexes().pendingBetween(today, today.plusDays(days)));
+    }
+
+    /**
+     * Returns the indexes of this snapshot, building them if there are none yet.
+     *
+     * @return the indexes
+     */
+    SnapshotIndexes indexes() {
+        SnapshotIndexes built = indexes;
+        if (built == null) {
+            built = SnapshotIndexes.build(view);
+            indexes = built;
+            store.indexesBuilt();
+        }
+        return built;
+    }
+
+    /**
+     * Returns the indexes of this snapshot if they have been built.
+     *
+     * @return the indexes, or {@code null} if no query has needed them yet
+     */
+    SnapshotIndexes builtIndexes() {
+        return indexes;
+    }
+}
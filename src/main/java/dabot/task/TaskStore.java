@@ -0,0 +1,78 @@
+package dabot.task;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * How a {@link TaskList} holds its tasks, and the operations whose cost depends on that.
+ * <p>
+ * A {@code TaskList} makes every change to a task through its store, so a
+ * store whose list hands out decoded copies, like {@link ColumnarTaskList},
+ * still sees each change. {@link IndexedTaskStore} is the store over a plain
+ * list of task objects.
+ * </p>
+ */
+interface TaskStore {
+
+    /**
+     * Returns a store over {@code tasks}: the list itself if it is a {@link ColumnarTaskList},
+     * otherwise an {@link IndexedTaskStore} that registers its indexes with {@code listeners}.
+     *
+     * @param tasks     the tasks of a {@code TaskList}
+     * @param listeners the listeners of that {@code TaskList}
+     * @return the store
+     */
+    static TaskStore over(List<Task> tasks, List<TaskListListener> listeners) {
+        return tasks instanceof ColumnarTaskList ? (ColumnarTaskList) tasks : new IndexedTaskStore(tasks, listeners);
+    }
+
+    /**
+     * Removes the tasks at the given indices.
+     *
+     * @param sortedIndices indices to remove, ascending and without duplicates
+     */
+    void removeAll(int[] sortedIndices);
+
+    /**
+     * Sets the status of the task at {@code index}.
+     *
+     * @param index  position of the task
+     * @param isDone new status
+     * @return the task with its new status, as listeners should see it
+     */
+    Task setDone(int index, boolean isDone);
+
+    /**
+     * Returns the indices of all tasks that are marked done.
+     *
+     * @return ascending indices of done tasks
+     */
+    int[] doneIndices();
+
+    /**
+     * Returns deadlines due within {@code [from, to]} and events that overlap it, both ends inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> between(LocalDate from, LocalDate to);
+
+    /**
+     * Returns the tasks that are not done and are due or start between {@code from} and {@code to}, inclusive.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return matching tasks in list order
+     */
+    List<Task> pendingBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Returns the tasks that, for every word of {@code queryWords}, have a word containing it,
+     * with the rules of {@link KeywordIndex#candidates(String[])}.
+     *
+     * @param queryWords lowercase query words; must not be empty
+     * @return candidate tasks in list order
+     */
+    List<Task> candidates(String[] queryWords);
+}
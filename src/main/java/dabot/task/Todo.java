@@ -15,14 +15,29 @@ public class Todo extends Task {
         super(description);
     }
 
+    /**
+     * Creates a new {@code Todo} whose description is looked up in {@code pool}.
+     *
+     * @param description the description of the todo
+     * @param pool        pool to share the description through
+     */
+    Todo(String description, StringPool pool) {
+        super(description, pool);
+    }
+
     /**
      * Returns the string form of this todo task.
      *
      * @return string with type and status
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String render() {
+        return "[T]" + super.render();
+    }
+
+    @Override
+    Task copy() {
+        return new Todo(description);
     }
 
     /**
@@ -0,0 +1,60 @@
+package dabot.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandQueueTest {
+
+    @Test
+    void testRepliesInSubmissionOrderOnReplyExecutor() throws InterruptedException {
+        List<String> replies = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CommandQueue queue = new CommandQueue(input -> {
+            threads.add(Thread.currentThread().getName());
+            if (input.equals("boom")) {
+                throw new IllegalStateException("boom");
+            }
+            return input.toUpperCase();
+        }, Runnable::run);
+
+        for (int i = 0; i < 100; i++) {
+            queue.submit(i == 50 ? "boom" : "c" + i, replies::add);
+        }
+        assertTrue(queue.shutdown(10_000));
+
+        assertEquals(100, replies.size());
+        assertEquals("C0", replies.get(0));
+        assertEquals("Error! Something went wrong: boom", replies.get(50));
+        assertEquals("C99", replies.get(99));
+        assertEquals(1, threads.stream().distinct().count());
+    }
+
+    @Test
+    void testLastJobRunsOnWriterAfterQueuedCommands() throws InterruptedException {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CommandQueue queue = new CommandQueue(input -> {
+            threads.add(Thread.currentThread().getName());
+            order.add(input);
+            return input;
+        }, Runnable::run);
+
+        for (int i = 0; i < 10; i++) {
+            queue.submit("c" + i, reply -> { });
+        }
+        assertTrue(queue.shutdown(() -> {
+            threads.add(Thread.currentThread().getName());
+            order.add("sync");
+        }, 10_000));
+
+        assertEquals(11, order.size());
+        assertEquals("sync", order.get(10));
+        assertEquals(1, threads.stream().distinct().count());
+    }
+}
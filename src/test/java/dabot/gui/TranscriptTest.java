@@ -0,0 +1,36 @@
+package dabot.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TranscriptTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testKeepsRecentMessagesAndSpillsOldest() throws IOException {
+        List<Message> visible = new ArrayList<>();
+        Path spill = dir.resolve("logs").resolve("transcript.txt");
+        Files.createDirectories(spill.getParent());
+        Files.writeString(spill, "from an earlier session\n");
+        Transcript transcript = new Transcript(visible, spill, 8);
+
+        for (int i = 0; i < 11; i++) {
+            transcript.add(new Message("m" + i, i % 2 == 0, false));
+        }
+
+        assertEquals(4, transcript.getSpilledCount());
+        assertEquals(7, visible.size());
+        assertEquals("m4", visible.get(0).getText());
+        assertEquals(List.of("You: m0", "DaBot: m1", "You: m2", "DaBot: m3"), Files.readAllLines(spill));
+    }
+}
@@ -0,0 +1,291 @@
+package dabot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dabot.main.DabotException;
+import dabot.task.Deadline;
+import dabot.task.Event;
+import dabot.task.TaskList;
+import dabot.task.Todo;
+
+public class StorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testJournalReplayAfterRestart() throws DabotException {
+        String path = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(path, true);
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+        tasks.add(new Todo("read book"), new Deadline("return book", "2019-12-02"));
+        tasks.mark(1);
+        tasks.delete(0);
+        storage.save(tasks.asList());
+
+        TaskList reloaded = new TaskList(new Storage(path, true).load());
+        assertEquals(1, reloaded.size());
+        assertEquals(tasks.get(0).toString(), reloaded.get(0).toString());
+    }
+
+    @Test
+    void testJournalCompactionKeepsAllTasks() throws DabotException {
+        String path = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(path, true);
+        storage.setCompactionThreshold(3);
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("task " + i));
+            storage.save(tasks.asList());
+        }
+        storage.sync();
+
+        TaskList reloaded = new TaskList(new Storage(path).load());
+        assertEquals(9, reloaded.size());
+        TaskList replayed = new TaskList(new Storage(path, true).load());
+        assertEquals(10, replayed.size());
+        assertEquals("[T][ ] task 9", replayed.get(9).toString());
+    }
+
+    @Test
+    void testSaveReplacesFileAtomically() throws DabotException {
+        Path path = dir.resolve("tasks.txt");
+        Storage storage = new Storage(path.toString());
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        storage.save(tasks.asList());
+        tasks.add(new Todo("write essay"));
+        storage.save(tasks.asList());
+
+        assertFalse(Files.exists(dir.resolve("tasks.txt.tmp")));
+        assertEquals(2, new Storage(path.toString()).load().size());
+    }
+
+    @Test
+    void testGroupCommitWritesLatestStateOnSync() throws DabotException {
+        String path = dir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(path);
+        storage.setSyncWindow(60_000);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("task " + i));
+            storage.save(tasks.asList());
+        }
+        assertEquals(0, new Storage(path).load().size());
+
+        storage.sync();
+        assertEquals(5, new Storage(path).load().size());
+    }
+
+    @Test
+    void testConvertTextToBinaryAndBack() throws DabotException {
+        String text = dir.resolve("tasks.txt").toString();
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"), new Deadline("return book", "2019-12-02"),
+                new Deadline("submit report", "Sunday"), new Event("project meeting", "2019-12-02", "4pm"));
+        tasks.mark(1);
+        new Storage(text).save(tasks.asList());
+
+        String binary = dir.resolve("tasks.bin").toString();
+        String back = dir.resolve("back.txt").toString();
+        Storage.convert(text, binary);
+        Storage.convert(binary, back);
+
+        TaskList fromBinary = new TaskList(new Storage(binary).load());
+        TaskList fromBack = new TaskList(new Storage(back).load());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), fromBinary.get(i).toString());
+            assertEquals(tasks.get(i).encodeString(), fromBack.get(i).encodeString());
+        }
+    }
+
+    @Test
+    void testBinaryLoadStopsAtCorruptRecord() throws Exception {
+        String text = dir.resolve("tasks.txt").toString();
+        new Storage(text).save(List.of(new Todo("read book"), new Deadline("return book", "2019-12-02"),
+                new Todo("write essay"), new Todo("buy milk")));
+        Path binary = dir.resolve("tasks.bin");
+        Storage.convert(text, binary.toString());
+        byte[] valid = Files.readAllBytes(binary);
+        int second = 9 + 15; // header, then 'T', flags, length and "read book"
+
+        byte[] badType = valid.clone();
+        badType[second] = 'X';
+        byte[] hugeLength = valid.clone();
+        ByteBuffer.wrap(hugeLength).putInt(second + 2, Integer.MAX_VALUE);
+        byte[] negativeLength = valid.clone();
+        ByteBuffer.wrap(negativeLength).putInt(second + 2, -1);
+        for (byte[] corrupt : List.of(badType, hugeLength, negativeLength)) {
+            Files.write(binary, corrupt);
+            Storage storage = new Storage(binary.toString());
+            List<String> loaded = storage.load().stream().map(t -> t.encodeString()).collect(Collectors.toList());
+            assertEquals(List.of("T | 0 | read book"), loaded);
+            List<LoadReport.Problem> problems = storage.getLastLoadReport().getProblems();
+            assertEquals(1, problems.size());
+            assertTrue(problems.get(0).getMessage().startsWith("task 2 of 4 is corrupt"), problems.toString());
+            assertTrue(problems.get(0).getMessage().endsWith("dropped it and the 2 after it"), problems.toString());
+        }
+    }
+
+    @Test
+    void testMemoryMappedLoadMatchesEagerLoad() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        Files.writeString(path, "T | 0 | read book\r\n\nnot a task\nD | 1 | return book | 2019-12-02\n"
+                + "E | 0 | project meeting | Mon 2pm | 4pm");
+        Storage eager = new Storage(path.toString());
+        Storage mapped = new Storage(path.toString(), true);
+        mapped.setMemoryMapped(true);
+
+        TaskList expected = new TaskList(eager.load());
+        TaskList actual = TaskList.wrap(mapped.load());
+        mapped.attach(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+
+        actual.delete(0);
+        actual.add(new Todo("write essay"));
+        mapped.save(actual.asList());
+        TaskList reloaded = new TaskList(new Storage(path.toString(), true).load());
+        assertEquals("[T][ ] write essay", reloaded.get(2).toString());
+    }
+
+    @Test
+    void testMemoryMappedLoadSkipsBadLinesLikeEagerLoad() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        Files.writeString(path, "T | 0 | read book\nD | 0 | no date\nE | 1 | meeting | Mon 2pm | \nX | 0 | y\n"
+                + "T | 0 |  | \nE | 0 | café | Mon | Tue\nT | 1 |  | note\nT | 0 x | odd flag\n");
+        Storage eager = new Storage(path.toString());
+        Storage mapped = new Storage(path.toString(), true);
+        mapped.setMemoryMapped(true);
+
+        List<String> expected = eager.load().stream().map(t -> t.encodeString()).collect(Collectors.toList());
+        TaskList actual = TaskList.wrap(mapped.load());
+        mapped.attach(actual);
+        assertEquals(expected, actual.asList().stream().map(t -> t.encodeString()).collect(Collectors.toList()));
+        assertEquals(eager.getLastLoadReport().getProblems().toString(),
+                mapped.getLastLoadReport().getProblems().toString());
+
+        actual.find("meeting"); // decodes every row
+        actual.add(new Todo("write essay"));
+        mapped.save(actual.asList());
+        expected.add("T | 0 | write essay");
+        assertEquals(expected, new Storage(path.toString(), true).load().stream().map(t -> t.encodeString())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testAllTextLoadersReportTheSameProblems() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        Files.writeString(path, "T | 0 | read book\r\n\nnot a task\n\r\nD | 1 | return book | 2019-12-02\n"
+                + "D | 0 | no date\n\nE | 0 | project meeting | Mon 2pm | 4pm\n");
+        Storage eager = new Storage(path.toString());
+        Storage parallel = new Storage(path.toString());
+        parallel.setParallelLoad(true);
+        Storage mapped = new Storage(path.toString());
+        mapped.setMemoryMapped(true);
+
+        List<String> expected = eager.load().stream().map(t -> t.toString()).collect(Collectors.toList());
+        assertEquals(expected, parallel.load().stream().map(t -> t.toString()).collect(Collectors.toList()));
+        assertEquals(expected, mapped.load().stream().map(t -> t.toString()).collect(Collectors.toList()));
+        List<LoadReport.Problem> problems = eager.getLastLoadReport().getProblems();
+        assertEquals(List.of(2L, 3L, 4L, 6L, 7L),
+                problems.stream().map(p -> p.getLineNumber()).collect(Collectors.toList()));
+        assertEquals(problems.toString(), parallel.getLastLoadReport().getProblems().toString());
+        assertEquals(problems.toString(), mapped.getLastLoadReport().getProblems().toString());
+    }
+
+    @Test
+    void testParallelLoadKeepsOrderAndReportsBadLines() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            sb.append(i % 1000 == 7 ? "not a task" : "T | 0 | task " + i).append('\n');
+        }
+        Files.writeString(path, sb);
+        Storage storage = new Storage(path.toString());
+        storage.setParallelLoad(true);
+
+        TaskList tasks = new TaskList(storage.load());
+        assertEquals(49_950, tasks.size());
+        assertEquals("[T][ ] task 0", tasks.get(0).toString());
+        assertEquals("[T][ ] task 49999", tasks.get(tasks.size() - 1).toString());
+        LoadReport report = storage.getLastLoadReport();
+        assertEquals(50, report.getProblems().size());
+        assertEquals(8, report.getProblems().get(0).getLineNumber());
+        assertEquals(49_008, report.getProblems().get(49).getLineNumber());
+    }
+
+    @Test
+    void testSegmentedSaveRewritesOnlyChangedSegments() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        Storage storage = new Storage(path.toString());
+        storage.setSegmented(true);
+        TaskList tasks = TaskList.wrap(storage.load());
+        storage.attach(tasks);
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.save(tasks.asList());
+        Set<String> before = segmentFiles(path);
+        assertEquals(3, before.size());
+
+        tasks.mark(1);
+        tasks.delete(2500);
+        storage.save(tasks.asList());
+        Set<String> after = segmentFiles(path);
+        assertEquals(3, after.size());
+        after.retainAll(before);
+        assertEquals(1, after.size()); // the middle segment was not touched
+
+        TaskList reloaded = new TaskList(new Storage(path.toString()).load());
+        assertEquals(2999, reloaded.size());
+        assertEquals("[T][X] task 1", reloaded.get(1).toString());
+        assertEquals("[T][ ] task 2501", reloaded.get(2500).toString());
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void testPlainSaveReplacesSegments() throws Exception {
+        Path path = dir.resolve("tasks.txt");
+        Storage segmented = new Storage(path.toString());
+        segmented.setSegmented(true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"), new Todo("write essay"));
+        segmented.save(tasks.asList());
+
+        Storage plain = new Storage(path.toString());
+        TaskList loaded = new TaskList(plain.load());
+        assertEquals(2, loaded.size());
+        loaded.delete(0);
+        plain.save(loaded.asList());
+
+        assertFalse(Files.exists(dir.resolve("tasks.txt.segments")));
+        assertEquals(List.of("T | 0 | write essay"), Files.readAllLines(path));
+    }
+
+    private static Set<String> segmentFiles(Path path) throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(path + ".segments"))) {
+            return files.map(f -> f.getFileName().toString()).filter(n -> n.startsWith("segment-"))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+}
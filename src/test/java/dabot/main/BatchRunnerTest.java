@@ -0,0 +1,41 @@
+package dabot.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRunsCommandsAndSavesAtEnd() throws IOException, DabotException {
+        Path file = dir.resolve("tasks.txt");
+        String commands = "todo read book\n\ndeadline return book /by 2019-12-02\nmark 1\ndelete 2\n";
+        BatchRunner runner = new BatchRunner(new DaBot(file.toString()), null, 0);
+
+        BatchRunner.Result result = runner.run(new BufferedReader(new StringReader(commands)));
+
+        assertEquals(4, result.getCommandCount());
+        assertEquals(List.of("T | 1 | read book"), Files.readAllLines(file));
+    }
+
+    @Test
+    void testStopsAfterBye() throws IOException, DabotException {
+        Path file = dir.resolve("tasks.txt");
+        String commands = "todo a\nbye\ntodo b\n";
+        BatchRunner runner = new BatchRunner(new DaBot(file.toString()), null, 1);
+
+        assertEquals(2, runner.run(new BufferedReader(new StringReader(commands))).getCommandCount());
+        assertEquals(List.of("T | 0 | a"), Files.readAllLines(file));
+    }
+}
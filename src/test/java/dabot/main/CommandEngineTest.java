@@ -0,0 +1,61 @@
+package dabot.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dabot.io.Storage;
+import dabot.metrics.Metrics;
+import dabot.task.TaskList;
+
+public class CommandEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private DaBot botWithTodos(int count) {
+        DaBot bot = new DaBot(dir.resolve("tasks.txt").toString());
+        bot.setSaveDeferred(true);
+        for (int i = 1; i <= count; i++) {
+            bot.handle("todo t" + i);
+        }
+        return bot;
+    }
+
+    @Test
+    void testListPagesAndWindows() {
+        DaBot bot = botWithTodos(5);
+        assertEquals("Here are the tasks in your list (3-4 of 5):\n3. [T][ ] t3\n4. [T][ ] t4",
+                bot.handle("list /page 2 /size 2"));
+        assertEquals("Here are the tasks in your list (5-5 of 5):\n5. [T][ ] t5", bot.handle("list 5-9"));
+        assertEquals("That page is empty; there are only 5 tasks to show.", bot.handle("list /page 4 /size 2"));
+        assertEquals("Here are the matching tasks (2-2 of 5):\n2. [T][ ] t2", bot.handle("find t /page 2 /size 1"));
+    }
+
+    @Test
+    void testStreamedReplyMatchesString() throws IOException {
+        DaBot bot = botWithTodos(3);
+        StringBuilder out = new StringBuilder();
+        bot.handle("list", out);
+        assertEquals(bot.handle("list"), out.toString());
+        assertEquals("Here are the tasks in your list:\n1. [T][ ] t1\n2. [T][ ] t2\n3. [T][ ] t3", out.toString());
+    }
+
+    @Test
+    void testReadOnlyCommands() {
+        CommandEngine engine = new CommandEngine(new Storage(dir.resolve("tasks.txt").toString()), new TaskList(),
+                new Metrics());
+        for (String input : new String[] {"list", "find book", "on 2019-12-02", "remind 7", "stats"}) {
+            assertTrue(engine.isReadOnly(input), input);
+        }
+        for (String input : new String[] {"todo list", "mark 1", "delete done", "bye", "", "listing"}) {
+            assertFalse(engine.isReadOnly(input), input);
+        }
+    }
+}
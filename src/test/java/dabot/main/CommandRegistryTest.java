@@ -0,0 +1,55 @@
+package dabot.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandRegistryTest {
+
+    private static CommandRegistry registryOf(String... names) {
+        Map<String, CommandRegistry.Command> commands = new LinkedHashMap<>();
+        for (String name : names) {
+            commands.put(name, (line, out) -> out.append(name));
+        }
+        return new CommandRegistry(commands);
+    }
+
+    @Test
+    void testFindsEveryCommandInPlace() throws DabotException, IOException {
+        String[] names = {"bye", "list", "mark", "unmark", "delete", "find", "todo", "deadline", "event"};
+        CommandRegistry registry = registryOf(names);
+        for (String name : names) {
+            Lexer line = Lexer.lex("  " + name + " 1");
+            StringBuilder out = new StringBuilder();
+            registry.lookup(line.line(), 2, 2 + name.length()).getCommand().run(line, out);
+            assertEquals(name, out.toString());
+        }
+    }
+
+    @Test
+    void testRejectsPrefixesAndExtensions() {
+        CommandRegistry registry = registryOf("list", "mark", "unmark");
+        assertNull(registry.lookup("lis", 0, 3));
+        assertNull(registry.lookup("lists", 0, 5));
+        assertNull(registry.lookup("mark 1", 1, 4));
+        assertNull(registry.lookup("LIST", 0, 4));
+    }
+
+    @Test
+    void testSeparatesManyWords() {
+        String[] names = new String[200];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "cmd" + i;
+        }
+        CommandRegistry registry = registryOf(names);
+        for (String name : names) {
+            assertEquals(name, registry.lookup(name, 0, name.length()).getName());
+        }
+        assertNull(registry.lookup("cmd200", 0, 6));
+    }
+}
@@ -0,0 +1,40 @@
+package dabot.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class LexerTest {
+
+    @Test
+    void testTypesAndSpans() {
+        Lexer line = Lexer.lex("  deadline  file 42 taxes\t/by 2019-12-02 ");
+        assertEquals(6, line.count());
+        assertEquals(Lexer.Type.WORD, line.type(0));
+        assertEquals(Lexer.Type.NUMBER, line.type(2));
+        assertEquals(42, line.intValue(2));
+        assertEquals(Lexer.Type.FLAG, line.type(4));
+        assertEquals(4, line.findFlag("/by", 1));
+        assertEquals(-1, line.findFlag("/to", 1));
+        assertEquals("file 42 taxes", line.span(1, 4));
+        assertEquals("2019-12-02", line.text(5));
+        assertEquals("", line.span(5, 5));
+    }
+
+    @Test
+    void testFlagGluedToWord() {
+        Lexer line = Lexer.lex("event meet/from Mon/to 2/12/2019");
+        assertEquals(6, line.count());
+        assertEquals(2, line.findFlag("/from", 1));
+        assertEquals(4, line.findFlag("/to", 1));
+        assertEquals("meet", line.span(1, 2));
+        assertEquals("2/12/2019", line.text(5));
+    }
+
+    @Test
+    void testManyTokensAndBlankLine() {
+        assertEquals(0, Lexer.lex(" \t ").count());
+        assertEquals(20, Lexer.lex("a b c d e f g h i j k l m n o p q r s t").count());
+        assertEquals(Lexer.Type.WORD, Lexer.lex("/").type(0));
+    }
+}
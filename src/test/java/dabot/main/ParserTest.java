@@ -1,5 +1,6 @@
 package dabot.main;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import dabot.task.Deadline;
 import dabot.task.Event;
 import dabot.task.Task;
+import dabot.task.TaskList;
 import dabot.task.Todo;
 
 public class ParserTest {
@@ -63,4 +65,83 @@ public class ParserTest {
     void parseOnDateBadThrows() {
         assertThrows(DabotException.class, () -> Parser.parseOnDate("on Oct-15-2019"));
     }
+
+    @Test
+    void parseOnRangeSingleAndPairOk() throws DabotException {
+        LocalDate d = LocalDate.of(2019, 10, 15);
+        assertArrayEquals(new LocalDate[] {d, d}, Parser.parseOnRange("on 2019-10-15"));
+        assertArrayEquals(new LocalDate[] {d, d.plusDays(6)}, Parser.parseOnRange("on 2019-10-15  2019-10-21"));
+    }
+
+    @Test
+    void parseOnRangeReversedThrows() {
+        assertThrows(DabotException.class, () -> Parser.parseOnRange("on 2019-10-21 2019-10-15"));
+    }
+
+    @Test
+    void parseIndexSelectionListsAndRangesOk() throws DabotException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(new Todo("t" + i));
+        }
+        assertArrayEquals(new int[] {0, 3, 6, 7, 8}, Parser.parseIndexSelection("mark 1,4,7-9, 8", tasks));
+        assertArrayEquals(new int[] {11}, Parser.parseIndexSelection("delete 12", tasks));
+        assertThrows(DabotException.class, () -> Parser.parseIndexSelection("delete 3-13", tasks));
+        assertThrows(DabotException.class, () -> Parser.parseIndexSelection("delete 5-3", tasks));
+        assertArrayEquals(new int[] {2, 3, 4}, Parser.parseIndexSelection("mark 3 - 5", tasks));
+    }
+
+    @Test
+    void parseIndexSelectionSingleNumberKeepsOldReplies() throws DabotException {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new Todo("t" + i));
+        }
+        assertArrayEquals(new int[] {1}, Parser.parseIndexSelection("mark 2 extra", tasks));
+        for (String input : new String[] {"mark 0", "mark abc", "mark +3"}) {
+            DabotException e = assertThrows(DabotException.class, () -> Parser.parseIndexSelection(input, tasks));
+            assertEquals("Task number must be a positive integer.", e.getMessage());
+        }
+        DabotException e = assertThrows(DabotException.class, () -> Parser.parseIndexSelection("mark 4", tasks));
+        assertEquals("Task number 4 is out of range.", e.getMessage());
+    }
+
+    @Test
+    void parseTaskFlagsOnlyAsWholeWords() throws DabotException {
+        Task t = Parser.parseTask("deadline check /bypass  logs /by Sunday");
+        assertTrue(t.toString().startsWith("[D][ ] check /bypass  logs"));
+        assertTrue(t.toString().endsWith("(by: Sunday)"));
+        Task e = Parser.parseTask("event trip /from Mon /tomorrow /to Fri");
+        assertEquals("[E][ ] trip (from: Mon /tomorrow to: Fri)", e.toString());
+        assertThrows(DabotException.class, () -> Parser.parseTask("deadline /by Sunday"));
+        assertEquals("[D][ ] return book(by: Sunday)", Parser.parseTask("deadline return book/by Sunday").toString());
+        assertEquals("[E][ ] trip (from: Mon to: Fri)", Parser.parseTask("event trip/from Mon/to Fri").toString());
+        assertThrows(DabotException.class, () -> Parser.parseTask("event trip /to Fri /from Mon"));
+        assertThrows(DabotException.class, () -> Parser.parseTask("event trip /from Mon /to"));
+    }
+
+    @Test
+    void parseNumbersRejectOverflow() {
+        assertThrows(DabotException.class, () -> Parser.parseIndex1("mark 99999999999"));
+        assertThrows(DabotException.class, () -> Parser.parseRemindDays("remind 0"));
+    }
+
+    @Test
+    void parsePagesAndWindows() throws DabotException {
+        assertTrue(Parser.parseListPage(Lexer.lex("list")).isAll());
+        Page window = Parser.parseListPage(Lexer.lex("list 3-5"));
+        assertEquals(2, window.from(10));
+        assertEquals(5, window.to(10));
+        Page page = Parser.parsePage(Lexer.lex("remind 7 /size 4 /page 3"), 1);
+        assertEquals(8, page.from(100));
+        assertEquals(10, page.to(10));
+        assertEquals(Page.DEFAULT_SIZE, Parser.parsePage(Lexer.lex("list /page 1"), 1).to(1000));
+        assertEquals("proj meet", Parser.parseFindKeyword(Lexer.lex("find proj meet /page 2")));
+        assertEquals(7, Parser.parseRemindDays(Lexer.lex("remind 7 /page 2")));
+        assertEquals(3, Parser.parseRemindDays(Lexer.lex("remind /page 2")));
+        assertThrows(DabotException.class, () -> Parser.parseListPage(Lexer.lex("list 5-3")));
+        assertThrows(DabotException.class, () -> Parser.parsePage(Lexer.lex("list /page 0"), 1));
+        assertThrows(DabotException.class, () -> Parser.parsePage(Lexer.lex("list /size"), 1));
+        assertThrows(DabotException.class, () -> Parser.parseFindKeyword(Lexer.lex("find /page 2")));
+    }
 }
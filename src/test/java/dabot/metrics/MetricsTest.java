@@ -0,0 +1,57 @@
+package dabot.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testHistogramPercentilesWithinABucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMaxNanos());
+        assertEquals(500_500, h.getMeanNanos());
+        long p50 = h.getPercentileNanos(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.25, "p50 was " + p50);
+        assertEquals(1_000_000, h.getPercentileNanos(100));
+    }
+
+    @Test
+    void testTraceRecordsEveryPhaseOnce() {
+        Metrics metrics = new Metrics();
+        Metrics.Trace trace = metrics.begin("find");
+        trace.lap(Metrics.Phase.PARSE);
+        trace.lap(Metrics.Phase.EXECUTE);
+        trace.end();
+        String json = metrics.toJson();
+        assertTrue(json.contains("\"find\":{\"total\":{\"count\":1,"), json);
+        assertTrue(json.contains("\"render\":{\"count\":1,"), json);
+        assertTrue(json.contains("\"save\":{\"count\":0,"), json);
+        assertTrue(metrics.report().contains("find"));
+    }
+
+    @Test
+    void testDumpWritesJson() throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.recordBytesWritten(42);
+        metrics.recordFsync(1_000_000);
+        Path file = dir.resolve("stats.json");
+        metrics.dump(file);
+        String json = Files.readString(file);
+        assertTrue(json.contains("\"bytesWritten\":42"), json);
+        assertTrue(json.contains("\"fsync\":{\"count\":1,"), json);
+    }
+}
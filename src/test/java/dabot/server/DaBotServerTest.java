@@ -0,0 +1,113 @@
+package dabot.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dabot.metrics.Metrics;
+
+public class DaBotServerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testUsersHaveSeparateLists() throws IOException {
+        try (DaBotServer server = new DaBotServer(dir, 0, new Metrics())) {
+            server.start();
+            try (Client alice = connect(server); Client bob = connect(server)) {
+                assertEquals("Hello alice! What can I do for you?", alice.request("user alice"));
+                assertEquals("Hello bob! What can I do for you?", bob.request("user bob"));
+
+                alice.request("todo read book");
+                assertTrue(alice.request("list").contains("read book"));
+                assertFalse(bob.request("list").contains("read book"));
+                alice.request("bye");
+            }
+        }
+        assertTrue(Files.readString(dir.resolve("alice.txt")).contains("read book"));
+        assertFalse(Files.exists(dir.resolve("bob.txt")));
+    }
+
+    @Test
+    void testConnectionsOfOneUserShareTheirList() throws IOException {
+        try (DaBotServer server = new DaBotServer(dir, 0, new Metrics())) {
+            server.start();
+            try (Client phone = connect(server); Client laptop = connect(server)) {
+                phone.request("user carol");
+                laptop.request("user carol");
+                phone.request("todo buy milk");
+                assertTrue(laptop.request("find milk").contains("buy milk"));
+                laptop.request("mark 1");
+                assertTrue(phone.request("list").contains("[T][X] buy milk"));
+            }
+        }
+    }
+
+    @Test
+    void testRejectsMissingGreeting() throws IOException {
+        try (DaBotServer server = new DaBotServer(dir, 0, new Metrics())) {
+            server.start();
+            try (Client socket = connect(server)) {
+                assertTrue(socket.request("list").startsWith("Please start with 'user NAME'"));
+            }
+        }
+    }
+
+    @Test
+    void testParseUser() {
+        assertEquals("alice_01", DaBotServer.parseUser("user alice_01"));
+        assertNull(DaBotServer.parseUser("user ../x"));
+        assertNull(DaBotServer.parseUser("user "));
+        assertNull(DaBotServer.parseUser("name alice"));
+        assertNull(DaBotServer.parseUser("user " + "a".repeat(33)));
+    }
+
+    private static Client connect(DaBotServer server) throws IOException {
+        return new Client(new Socket(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    /** A test connection that sends one line at a time and reads the framed reply. */
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        String request(String line) throws IOException {
+            out.write(line + "\n");
+            out.flush();
+            int lines = Integer.parseInt(in.readLine());
+            StringBuilder reply = new StringBuilder();
+            for (int i = 0; i < lines; i++) {
+                reply.append(i > 0 ? "\n" : "").append(in.readLine());
+            }
+            return reply.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dabot.task;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dabot.main.DabotException;
+
+public class ColumnarTaskListTest {
+
+    private static List<Task> sample() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", "2019-12-02"));
+        tasks.add(new Deadline("submit report", "Sunday"));
+        tasks.add(new Event("project meeting", "2019-12-01", "2019-12-03"));
+        tasks.add(new Event("café visit", "Mon 2pm", "2019-12-04"));
+        tasks.add(new Event("trip", "+10000-01-01", "+10000-01-02"));
+        tasks.get(1).markAsDone();
+        return tasks;
+    }
+
+    private static List<String> encoded(List<Task> tasks) {
+        List<String> out = new ArrayList<>();
+        for (Task t : tasks) {
+            out.add(t.encodeString() + " / " + t);
+        }
+        return out;
+    }
+
+    @Test
+    void testRowsDecodeToEqualTasks() {
+        List<Task> tasks = sample();
+        assertEquals(encoded(tasks), encoded(new ColumnarTaskList(tasks)));
+    }
+
+    @Test
+    void testInsertSetAndRemoveKeepOtherRows() {
+        List<Task> expected = sample();
+        ColumnarTaskList columns = new ColumnarTaskList(expected);
+        for (int i = 0; i < 200; i++) {
+            Task t = new Todo("filler " + i);
+            expected.add(3, t);
+            columns.add(3, t);
+        }
+        expected.set(0, new Deadline("renew card", "2020-01-31"));
+        columns.set(0, new Deadline("renew card", "2020-01-31"));
+        for (int i = 0; i < 100; i++) {
+            expected.remove(i); // every other row, so the arena is compacted along the way
+            columns.remove(i);
+        }
+        assertEquals(encoded(expected), encoded(columns));
+    }
+
+    @Test
+    void testTaskListQueriesMatchIndexedList() throws DabotException {
+        TaskList indexed = new TaskList(sample());
+        TaskList columnar = TaskList.wrap(new ColumnarTaskList(sample()));
+        for (TaskList list : List.of(indexed, columnar)) {
+            list.mark(3);
+            list.unmark(1);
+            list.deleteAll(new int[] {0});
+        }
+
+        assertEquals(encoded(indexed.asList()), encoded(columnar.asList()));
+        assertArrayEquals(indexed.doneIndices(), columnar.doneIndices());
+        for (String keyword : new String[] {"book", "ook", "ject mee", "dec 02 2019", "caf", "[D]", "[X]", "!!"}) {
+            assertEquals(encoded(indexed.find(keyword)), encoded(columnar.find(keyword)), keyword);
+        }
+        LocalDate day = LocalDate.of(2019, 12, 2);
+        assertEquals(encoded(indexed.tasksOn(day)), encoded(columnar.tasksOn(day)));
+        assertEquals(encoded(indexed.tasksBetween(day, day.plusDays(2))),
+                encoded(columnar.tasksBetween(day, day.plusDays(2))));
+        assertEquals(encoded(indexed.remindersWithinDays(7, day.minusDays(2))),
+                encoded(columnar.remindersWithinDays(7, day.minusDays(2))));
+    }
+
+    @Test
+    void testFootprintIsReported() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tasks.add(new Deadline("task " + i, LocalDate.of(2020, 1, 1).plusDays(i).toString()));
+        }
+        ColumnarTaskList columns = new ColumnarTaskList(tasks);
+        long bytes = columns.footprintBytes();
+        assertEquals(String.format("Task columns: 10000 tasks in %.1f MB (%.1f bytes per task)",
+                bytes / 1e6, bytes / 10_000.0), columns.footprint());
+
+        columns.add(new Todo("x".repeat(100_000)));
+        assertTrue(columns.footprintBytes() - bytes >= 100_000); // the description arena is counted
+    }
+}
@@ -0,0 +1,178 @@
+package dabot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import dabot.main.DabotException;
+
+public class ConcurrentTaskListTest {
+    private final Task readBook = new Todo("read book");
+    private final Task returnBook = new Deadline("return book", "2019-12-02");
+    private final Task meeting = new Event("project meeting", "2019-12-01", "2019-12-03");
+
+    private ConcurrentTaskList sample() {
+        ConcurrentTaskList list = new ConcurrentTaskList();
+        list.add(readBook, returnBook, meeting);
+        return list;
+    }
+
+    @Test
+    void testSnapshotIsUnchangedByLaterWrites() throws DabotException {
+        ConcurrentTaskList list = sample();
+        TaskSnapshot before = list.snapshot();
+
+        list.add(new Todo("buy book"));
+        list.mark(0);
+        list.delete(1);
+
+        assertEquals(List.of(readBook, returnBook, meeting), before.asList());
+        assertEquals(List.of(readBook, returnBook), before.find("book"));
+        assertFalse(readBook.isDone);
+        assertTrue(list.snapshot().getVersion() > before.getVersion());
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    void testMarkReplacesTheTask() throws DabotException {
+        ConcurrentTaskList list = sample();
+        List<Task> marked = list.markAll(new int[] {1});
+
+        Task done = list.get(1);
+        assertNotSame(returnBook, done);
+        assertEquals(marked, List.of(done));
+        assertEquals("[D][X] return book (by: Dec 02 2019)", done.toString());
+        assertEquals(List.of(meeting), list.remindersWithinDays(7, LocalDate.of(2019, 11, 30)));
+        assertEquals(List.of(done, meeting), list.tasksOn(LocalDate.of(2019, 12, 2)));
+        assertEquals(List.of(done), list.find("return"));
+    }
+
+    @Test
+    void testIndexesFollowEveryChange() throws DabotException {
+        ConcurrentTaskList list = new ConcurrentTaskList();
+        TaskList plain = new TaskList();
+        LocalDate day = LocalDate.of(2019, 12, 2);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1500; i++) {
+                Task t = i % 3 == 0
+                        ? new Todo("book " + i)
+                        : new Deadline("return book " + i, day.plusDays(i % 5).toString());
+                list.add(t);
+                plain.add(t.copy());
+            }
+            assertEquals(plain.find("book").size(), list.find("book").size()); // builds the indexes
+            int[] selected = {round, 1024 + round, 1400};
+            list.markAll(selected);
+            plain.markAll(selected);
+            list.deleteAll(new int[] {5, 1450});
+            plain.deleteAll(new int[] {5, 1450});
+            assertEquals(plain.find("return 1").toString(), list.find("return 1").toString());
+            assertEquals(plain.tasksOn(day.plusDays(1)).toString(), list.tasksOn(day.plusDays(1)).toString());
+            assertEquals(plain.remindersWithinDays(2, day).toString(), list.remindersWithinDays(2, day).toString());
+        }
+    }
+
+    @Test
+    void testIndexesArePublishedWithEachSnapshot() throws DabotException {
+        ConcurrentTaskList list = sample();
+        list.find("book"); // builds the indexes
+        TaskSnapshot before = list.snapshot();
+
+        list.add(new Todo("buy book"));
+        list.mark(3);
+        list.mark(0);
+        list.unmark(0);
+        list.delete(1);
+
+        assertNotNull(list.snapshot().builtIndexes());
+        assertEquals(List.of(readBook, returnBook), before.find("book"));
+        assertEquals("[[T][ ] read book, [T][X] buy book]", list.find("book").toString());
+        assertEquals("[[T][X] buy book]", list.find("[X]").toString());
+        assertEquals(List.of(meeting), list.tasksOn(LocalDate.of(2019, 12, 2)));
+        assertEquals(List.of(returnBook, meeting), before.tasksBetween(LocalDate.of(2019, 12, 2),
+                LocalDate.of(2019, 12, 2)));
+    }
+
+    @Test
+    void testMarkCopiesOnlyTheChangedChunk() throws DabotException {
+        ConcurrentTaskList list = new ConcurrentTaskList();
+        for (int i = 0; i < 3 * TaskSnapshot.CHUNK_SIZE; i++) {
+            list.add(new Todo("task " + i));
+        }
+        TaskSnapshot before = list.snapshot();
+        list.mark(TaskSnapshot.CHUNK_SIZE + 7);
+        TaskSnapshot after = list.snapshot();
+
+        assertSame(before.chunks()[0], after.chunks()[0]);
+        assertNotSame(before.chunks()[1], after.chunks()[1]);
+        assertSame(before.chunks()[2], after.chunks()[2]);
+        assertFalse(before.get(TaskSnapshot.CHUNK_SIZE + 7).isDone);
+        assertTrue(after.get(TaskSnapshot.CHUNK_SIZE + 7).isDone);
+    }
+
+    @Test
+    void testListenersSeeEveryChange() throws DabotException {
+        ConcurrentTaskList list = sample();
+        List<String> events = new ArrayList<>();
+        list.addListener(new TaskListListener() {
+            @Override
+            public void taskAdded(int index, Task task) {
+                events.add("add " + index);
+            }
+
+            @Override
+            public void taskRemoved(int index, Task task) {
+                events.add("remove " + index);
+            }
+
+            @Override
+            public void taskUpdated(int index, Task task) {
+                events.add("update " + index + " " + task.getStatusIcon());
+            }
+        });
+
+        list.add(new Todo("a"));
+        list.unmarkAll(new int[] {0});
+        list.deleteAll(new int[] {0, 2});
+
+        assertEquals(List.of("add 3", "update 0  ", "remove 2", "remove 0"), events);
+    }
+
+    @Test
+    void testReadersNeverSeePartialChanges() throws InterruptedException {
+        ConcurrentTaskList list = new ConcurrentTaskList();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                int lastSize = 0;
+                while (lastSize < 2000) {
+                    TaskSnapshot s = list.snapshot();
+                    assertTrue(s.size() >= lastSize);
+                    assertEquals(0, s.size() % 2); // tasks are added in pairs by one call
+                    assertEquals(s.size() / 2, s.find("even").size());
+                    lastSize = s.size();
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i += 2) {
+            list.add(new Todo("even " + i), new Todo("odd " + i));
+        }
+        reader.join(10_000);
+        assertFalse(reader.isAlive());
+        assertNull(failure.get());
+    }
+}
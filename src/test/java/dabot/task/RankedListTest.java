@@ -0,0 +1,72 @@
+package dabot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class RankedListTest {
+
+    @Test
+    void testMatchesArrayListUnderRandomEdits() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>(List.of(1, 2, 3, 4, 5));
+        RankedList<Integer> actual = new RankedList<>(expected);
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                actual.add(index, i);
+            } else if (op == 1) {
+                expected.add(i);
+                actual.add(i);
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -i), actual.set(index, -i));
+            }
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected, new ArrayList<>(actual));
+    }
+
+    @Test
+    void testIteratorRemove() {
+        RankedList<Integer> list = new RankedList<>(List.of(1, 2, 3, 4, 5, 6));
+        list.removeIf(x -> x % 2 == 0);
+        assertEquals(List.of(1, 3, 5), list);
+    }
+
+    @Test
+    void testRemoveAllSmallAndLargeBatches() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            numbers.add(i);
+        }
+        RankedList<Integer> list = new RankedList<>(numbers);
+        list.removeAll(new int[] {0, 50, 99});
+        assertEquals(97, list.size());
+        assertEquals(51, list.get(49));
+
+        int[] evens = new int[list.size() / 2 + 1];
+        for (int i = 0; i < evens.length; i++) {
+            evens[i] = i * 2;
+        }
+        list.removeAll(evens);
+        assertEquals(List.of(2, 4, 6), list.subList(0, 3));
+    }
+
+    @Test
+    void testOutOfRangeThrows() {
+        RankedList<String> list = new RankedList<>();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(1, "a"));
+    }
+}
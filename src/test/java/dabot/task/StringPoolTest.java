@@ -0,0 +1,61 @@
+package dabot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dabot.main.DabotException;
+
+public class StringPoolTest {
+
+    @Test
+    void testEqualStringsShareOneInstance() {
+        StringPool pool = new StringPool(64);
+        String first = pool.intern(new String("pay rent"));
+        String second = pool.intern(new String("pay rent"));
+        assertSame(first, second);
+        assertSame(first, pool.intern(first));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.duplicates()); // handing back the pooled instance is not a duplicate
+        assertEquals(StringPool.estimateBytes("pay rent"), pool.savedBytes());
+    }
+
+    @Test
+    void testCollidingStringsReplaceEachOther() {
+        StringPool pool = new StringPool(1);
+        String a = pool.intern(new String("standup"));
+        pool.intern(new String("lunch"));
+        String again = new String("standup");
+        assertSame(again, pool.intern(again)); // "lunch" took the only slot
+        assertNotSame(a, again);
+    }
+
+    @Test
+    void testDisabledPoolReturnsArgument() {
+        StringPool pool = new StringPool(0);
+        String s = new String("standup");
+        assertSame(s, pool.intern(s));
+        assertEquals("String pool: off", pool.report());
+    }
+
+    @Test
+    void testDecodedTasksShareStrings() throws DabotException {
+        StringPool pool = new StringPool(64);
+        Task a = Task.decode("E | 0 | standup | Mon 9am | Mon 10am", pool);
+        Task b = Task.decode("E | 1 | standup | Mon 9am | Mon 10am", pool);
+        assertSame(a.description, b.description);
+        assertSame(((Event) a).startRaw, ((Event) b).startRaw);
+        assertSame(((Event) a).endRaw, ((Event) b).endRaw);
+    }
+
+    @Test
+    void testColumnarRowsSkipThePool() {
+        ColumnarTaskList columns = new ColumnarTaskList(List.of(new Todo("standup")));
+        assertNotSame(columns.get(0).description, columns.get(0).description);
+    }
+}
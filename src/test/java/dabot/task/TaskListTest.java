@@ -0,0 +1,123 @@
+package dabot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dabot.main.DabotException;
+
+public class TaskListTest {
+    private final Task readBook = new Todo("read book");
+    private final Task returnBook = new Deadline("return book", "2019-12-02");
+    private final Task meeting = new Event("project meeting", "Mon 2pm", "4pm");
+    private final Task report = new Todo("project report");
+
+    private TaskList sample() {
+        TaskList list = new TaskList(new ArrayList<>());
+        list.add(readBook, returnBook, meeting, report);
+        return list;
+    }
+
+    @Test
+    void testFindMatchesSubstrings() {
+        TaskList list = sample();
+        assertEquals(List.of(readBook, returnBook), list.find("BOO"));
+        assertEquals(List.of(readBook, returnBook), list.find("ook"));
+        assertEquals(List.of(meeting), list.find("ject mee"));
+        assertEquals(List.of(), list.find("proj meet"));
+    }
+
+    @Test
+    void testFindMatchesTypeAndStatusMarkers() throws DabotException {
+        TaskList list = sample();
+        assertEquals(List.of(returnBook), list.find("[D]"));
+        list.mark(3);
+        assertEquals(List.of(report), list.find("[X]"));
+        assertEquals(List.of(returnBook), list.find("(by:"));
+    }
+
+    @Test
+    void testShortQueryMergesManyWords() {
+        TaskList list = new TaskList(new ArrayList<>());
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Task t = new Todo((i % 2 == 0 ? "alpha" : "beta") + i + " item" + (1999 - i));
+            list.add(t);
+            if (i % 2 == 0) {
+                expected.add(t);
+            }
+        }
+        assertEquals(expected, list.find("lph"));
+        assertEquals(expected, list.find("ha"));
+        assertEquals(2000, list.find("item").size());
+    }
+
+    @Test
+    void testFindMatchesDisplayedDates() {
+        assertEquals(List.of(returnBook), sample().find("dec 02 2019"));
+    }
+
+    @Test
+    void testFindFollowsAddAndDelete() throws DabotException {
+        TaskList list = sample();
+        list.find("book");
+        list.delete(0);
+        Task buyBook = new Todo("buy book");
+        list.add(buyBook);
+        assertEquals(List.of(returnBook, buyBook), list.find("book"));
+    }
+
+    @Test
+    void testFindWithoutWordsFallsBackToSubstring() {
+        TaskList list = sample();
+        Task urgent = new Todo("pay rent!!");
+        list.add(urgent);
+        assertEquals(List.of(urgent), list.find("!!"));
+    }
+
+    @Test
+    void testTasksOnMatchesDeadlinesAndEventEnds() {
+        Task trip = new Event("trip", "2019-12-01", "2019-12-02");
+        TaskList list = sample();
+        list.add(trip);
+        assertEquals(List.of(returnBook, trip), list.tasksOn(LocalDate.of(2019, 12, 2)));
+        assertEquals(List.of(trip), list.tasksOn(LocalDate.of(2019, 12, 1)));
+    }
+
+    @Test
+    void testRemindersSkipDoneTasksAndFollowUnmark() throws DabotException {
+        Task essay = new Deadline("essay", "2019-12-05");
+        TaskList list = sample();
+        list.add(essay);
+        LocalDate today = LocalDate.of(2019, 12, 1);
+        assertEquals(List.of(returnBook, essay), list.remindersWithinDays(7, today));
+        list.mark(1);
+        assertEquals(List.of(essay), list.remindersWithinDays(7, today));
+        list.unmark(1);
+        assertEquals(List.of(returnBook), list.remindersWithinDays(2, today));
+    }
+
+    @Test
+    void testTasksOnFindsEventsSpanningTheDate() {
+        Task conference = new Event("conference", "2019-11-28", "2019-12-04");
+        TaskList list = sample();
+        list.add(conference);
+        assertEquals(List.of(returnBook, conference), list.tasksOn(LocalDate.of(2019, 12, 2)));
+        assertEquals(List.of(conference), list.tasksOn(LocalDate.of(2019, 11, 30)));
+        assertEquals(List.of(conference), list.tasksBetween(LocalDate.of(2019, 11, 1), LocalDate.of(2019, 11, 28)));
+        assertEquals(List.of(), list.tasksOn(LocalDate.of(2019, 12, 5)));
+    }
+
+    @Test
+    void testBulkMarkAndDeleteDone() throws DabotException {
+        TaskList list = sample();
+        assertEquals(List.of(readBook, meeting), list.markAll(new int[] {0, 2}));
+        assertEquals(List.of(readBook, meeting), list.deleteAll(list.doneIndices()));
+        assertEquals(List.of(returnBook), list.find("book"));
+        assertEquals(2, list.size());
+    }
+}
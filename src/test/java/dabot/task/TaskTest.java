@@ -1,8 +1,12 @@
 package dabot.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.LocalDate;
+
 import org.junit.jupiter.api.Test;
 
 import dabot.main.DabotException;
@@ -37,4 +41,35 @@ public class TaskTest {
     void testDecodeMalformedLineThrows() {
         assertThrows(DabotException.class, () -> Task.decodeString("E | 0 | only two fields"));
     }
+
+    @Test
+    void testDecodeIgnoresTrailingEmptyFields() {
+        assertThrows(DabotException.class, () -> Task.decodeString("D | 0 | return book | "));
+    }
+
+    @Test
+    void testDecodeFromCharSequence() throws DabotException {
+        Task decoded = Task.decode(new StringBuilder("E | 1 | project meeting | 2019-12-02 | 4pm"));
+        assertEquals("[E][X] project meeting (from: Dec 02 2019 to: 4pm)", decoded.toString());
+    }
+
+    @Test
+    void testIsoDatesMatchesLocalDateParse() {
+        assertEquals(LocalDate.of(2020, 2, 29), IsoDates.parseOrNull("2020-02-29"));
+        assertEquals(LocalDate.of(10000, 1, 1), IsoDates.parseOrNull("+10000-01-01"));
+        assertNull(IsoDates.parseOrNull("2019-02-29"));
+        assertNull(IsoDates.parseOrNull("2019-13-01"));
+        assertNull(IsoDates.parseOrNull("Sunday"));
+    }
+
+    @Test
+    void testDisplayStringIsCachedUntilStatusChanges() {
+        Task t = new Todo("read book");
+        String first = t.toString();
+        assertSame(first, t.toString());
+        t.markAsDone();
+        assertEquals("[T][X] read book", t.toString());
+        t.markAsUndone();
+        assertEquals(first, t.toString());
+    }
 }